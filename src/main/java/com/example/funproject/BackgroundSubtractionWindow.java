@@ -1,6 +1,5 @@
 package com.example.funproject;
 
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.chart.LineChart;
@@ -198,53 +197,33 @@ public class BackgroundSubtractionWindow extends Stage {
 
     // Linear background subtraction
     private void subtractLinearBackground(LineChart<Number, Number> chart) {
-        XYChart.Series<Number, Number> lastSeries = chart.getData().get(chart.getData().size() - 1);
-        ObservableList<XYChart.Data<Number, Number>> data = lastSeries.getData();
+        Spectrum spectrum = Spectrum.fromSeries(chart.getData().get(chart.getData().size() - 1));
 
         // Get X1 and X2 values
         double x1 = Double.parseDouble(x1TextField.getText());
         double x2 = Double.parseDouble(x2TextField.getText());
 
         // Find closest points to X1 and X2
-        XYChart.Data<Number, Number> point1 = findClosestPoint(data, x1);
-        XYChart.Data<Number, Number> point2 = findClosestPoint(data, x2);
-
-        // Get y1 and y2 values from closest points
-        double y1 = point1.getYValue().doubleValue();
-        double y2 = point2.getYValue().doubleValue();
+        int point1 = spectrum.closestIndex(x1);
+        int point2 = spectrum.closestIndex(x2);
 
         // Calculate coefficients of linear function (y = mx + b)
-        double m = (y2 - y1) / (point2.getXValue().doubleValue() - point1.getXValue().doubleValue());
-        double b = y1 - m * point1.getXValue().doubleValue();
-
-        // Create new series for subtracted data and background line
-        XYChart.Series<Number, Number> subtractedSeries = new XYChart.Series<>();
-        subtractedSeries.setName("Intensities");
-        XYChart.Series<Number, Number> backgroundLineSeries = new XYChart.Series<>();
-        backgroundLineSeries.setName("Baseline");
-
-        // Subtract background and add points to new series
-        for (XYChart.Data<Number, Number> point : data) {
-            double x = point.getXValue().doubleValue();
-            double yValue = point.getYValue().doubleValue();
-            double backgroundValue = m * x + b;
-            double subtractedY = yValue - backgroundValue;
-            subtractedSeries.getData().add(new XYChart.Data<>(x, subtractedY));
-            backgroundLineSeries.getData().add(new XYChart.Data<>(x, backgroundValue));
+        double m = (spectrum.y(point2) - spectrum.y(point1)) / (spectrum.x(point2) - spectrum.x(point1));
+        double b = spectrum.y(point1) - m * spectrum.x(point1);
+
+        // Calculate background line
+        double[] x = spectrum.x();
+        double[] background = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            background[i] = m * x[i] + b;
         }
 
-        // Add series to chart and hide legend
-        chart.getData().clear();
-        chart.getData().add(backgroundLineSeries);
-        backgroundLineSeries.getNode().lookup(".chart-series-line").setStyle("-fx-stroke-width: 1; -fx-stroke-dash-array: 2 2;");
-        chart.getData().add(subtractedSeries);
-        chart.setLegendVisible(false);
+        showSubtraction(chart, spectrum, background);
     }
 
     // Exponential background subtraction
     private void subtractExponentialBackground(LineChart<Number, Number> chart) {
-        XYChart.Series<Number, Number> lastSeries = chart.getData().get(chart.getData().size() - 1);
-        ObservableList<XYChart.Data<Number, Number>> data = lastSeries.getData();
+        Spectrum spectrum = Spectrum.fromSeries(chart.getData().get(chart.getData().size() - 1));
 
         // Get a, b, n, and c values
         double a = Double.parseDouble(aTextField.getText());
@@ -252,42 +231,30 @@ public class BackgroundSubtractionWindow extends Stage {
         double n = Double.parseDouble(nTextField.getText());
         double c = Double.parseDouble(cTextField.getText());
 
-        // Create new series for subtracted data and background curve
-        XYChart.Series<Number, Number> subtractedSeries = new XYChart.Series<>();
-        subtractedSeries.setName("Intensities");
-        XYChart.Series<Number, Number> backgroundCurveSeries = new XYChart.Series<>();
-        backgroundCurveSeries.setName("Baseline");
-
-        // Subtract background and add points to new series
-        for (XYChart.Data<Number, Number> point : data) {
-            double x = point.getXValue().doubleValue();
-            double yValue = point.getYValue().doubleValue();
-            double backgroundValue = 1 / (a + b * Math.pow(x, n) + Math.exp(a * x)) + c;
-            double subtractedY = yValue - backgroundValue;
-            subtractedSeries.getData().add(new XYChart.Data<>(x, subtractedY));
-            backgroundCurveSeries.getData().add(new XYChart.Data<>(x, backgroundValue));
+        // Calculate background curve
+        double[] x = spectrum.x();
+        double[] background = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            background[i] = 1 / (a + b * Math.pow(x[i], n) + Math.exp(a * x[i])) + c;
         }
 
-        // Add series to chart and hide legend
-        chart.getData().clear();
-        chart.getData().add(backgroundCurveSeries);
-        backgroundCurveSeries.getNode().lookup(".chart-series-line").setStyle("-fx-stroke-width: 1; -fx-stroke-dash-array: 2 2;");
-        chart.getData().add(subtractedSeries);
-        chart.setLegendVisible(false);
+        showSubtraction(chart, spectrum, background);
     }
 
-    // Find closest point to given x value
-    private XYChart.Data<Number, Number> findClosestPoint(ObservableList<XYChart.Data<Number, Number>> data, double x) {
-        XYChart.Data<Number, Number> closestPoint = null;
-        double minDistance = Double.MAX_VALUE;
-        for (XYChart.Data<Number, Number> point : data) {
-            double distance = Math.abs(point.getXValue().doubleValue() - x);
-            if (distance < minDistance) {
-                closestPoint = point;
-                minDistance = distance;
-            }
+    // Replace chart data with background and subtracted series, hide legend
+    private void showSubtraction(LineChart<Number, Number> chart, Spectrum spectrum, double[] background) {
+        double[] y = spectrum.y();
+        double[] subtracted = new double[y.length];
+        for (int i = 0; i < y.length; i++) {
+            subtracted[i] = y[i] - background[i];
         }
-        return closestPoint;
+
+        XYChart.Series<Number, Number> backgroundSeries = spectrum.withY(background).toSeries("Baseline");
+        chart.getData().clear();
+        chart.getData().add(backgroundSeries);
+        backgroundSeries.getNode().lookup(".chart-series-line").setStyle("-fx-stroke-width: 1; -fx-stroke-dash-array: 2 2;");
+        chart.getData().add(spectrum.withY(subtracted).toSeries("Intensities"));
+        chart.setLegendVisible(false);
     }
 
     // Calculate exponential parameters using the selected points
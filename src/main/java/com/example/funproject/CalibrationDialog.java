@@ -203,25 +203,12 @@ public class CalibrationDialog extends Stage {
             return null;
         }
 
-        XYChart.Series<Number, Number> intensitiesSeries = intensitiesSeriesOptional.get();
-
         // Получаем координаты X всех точек спектра из текущего графика
-        List<Double> xPositionsList = intensitiesSeries.getData().stream()
-                .map(data -> ((Number) data.getXValue()).doubleValue())
-                .collect(Collectors.toList());
-
-        double[] xPositions = xPositionsList.stream().mapToDouble(Double::doubleValue).toArray();
+        double[] xPositions = Spectrum.fromSeries(intensitiesSeriesOptional.get()).x();
 
         // Массив для хранения рассчитанных энергетических единиц для всех точек спектра
         double[] energies = new double[xPositions.length];
 
-        // Проверяем длину массивов xPositions и данных интенсивности
-        if (xPositions.length != intensitiesSeries.getData().size()) {
-            System.out.println("Несоответствие длины данных! xPositions.length = " + xPositions.length + ", intensitiesSeries.getData().size() = " + intensitiesSeries.getData().size());
-            showErrorDialog("Ошибка калибровки", "Несоответствие длины данных!");
-            return null;
-        }
-
         // Рассчитываем угол, длину волны и энергетические единицы для каждой точки спектра
         for (int i = 0; i < xPositions.length; i++) {
             BigDecimal xPos = BigDecimal.valueOf(xPositions[i]);
@@ -244,21 +231,19 @@ public class CalibrationDialog extends Stage {
 
         if (intensitiesSeriesOptional.isPresent()) {
             XYChart.Series<Number, Number> intensitiesSeries = intensitiesSeriesOptional.get();
-            XYChart.Series<Number, Number> calibratedSeries = new XYChart.Series<>();
-            calibratedSeries.setName("Калиброванный спектр");
+            Spectrum spectrum = Spectrum.fromSeries(intensitiesSeries);
 
             // Выводим длину данных интенсивности
-            System.out.println("Длина данных интенсивности = " + intensitiesSeries.getData().size());
+            System.out.println("Длина данных интенсивности = " + spectrum.size());
 
             // Проверяем соответствие длины данных
-            if (calibratedEnergies.length != intensitiesSeries.getData().size()) {
+            if (calibratedEnergies.length != spectrum.size()) {
                 showErrorDialog("Ошибка калибровки", "Несоответствие длины данных!");
                 return;
             }
 
-            for (int i = 0; i < calibratedEnergies.length; i++) {
-                calibratedSeries.getData().add(new XYChart.Data<>(calibratedEnergies[i], intensitiesSeries.getData().get(i).getYValue()));
-            }
+            XYChart.Series<Number, Number> calibratedSeries =
+                    new Spectrum(calibratedEnergies, spectrum.y()).toSeries("Калиброванный спектр");
 
             currentChart.getData().remove(intensitiesSeries);
             currentChart.getData().add(calibratedSeries);
@@ -15,9 +15,14 @@ import javafx.stage.Stage;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 public class ChartCropper {
+    static final String CROP_LINE_SERIES_NAME = "Линия обрезки";
+    static final String PEAK_SERIES_NAME = "Локальные пики";
+
     private LineChart<Number, Number> lineChart;
     private XYChart.Series<Number, Number> verticalLineSeries;
     private XYChart.Series<Number, Number> peakSeries;
@@ -30,10 +35,10 @@ public class ChartCropper {
         this.lineChart = lineChart;
         this.onCropComplete = onCropComplete;
         this.verticalLineSeries = new XYChart.Series<>();
-        verticalLineSeries.setName("Линия обрезки");
+        verticalLineSeries.setName(CROP_LINE_SERIES_NAME);
 
         this.peakSeries = new XYChart.Series<>();
-        peakSeries.setName("Локальные пики");
+        peakSeries.setName(PEAK_SERIES_NAME);
 
         lineChart.setCreateSymbols(false); // Отключить символы для основной серии
         lineChart.getData().add(verticalLineSeries);
@@ -131,39 +136,57 @@ public class ChartCropper {
      * Метод для выделения локальных пиков
      */
     public void highlightLocalPeaks(double threshold, int distance) {
-        peakSeries.getData().clear();
-        for (XYChart.Series<Number, Number> series : lineChart.getData()) {
-            if (!series.equals(verticalLineSeries) && !series.equals(peakSeries)) {
-                for (int i = distance; i < series.getData().size() - distance; i++) {
-                    XYChart.Data<Number, Number> currentData = series.getData().get(i);
-
-                    boolean isPeak = true;
-                    for (int j = 1; j <= distance; j++) {
-                        XYChart.Data<Number, Number> prevData = series.getData().get(i - j);
-                        XYChart.Data<Number, Number> nextData = series.getData().get(i + j);
-
-                        if (currentData.getYValue().doubleValue() <= prevData.getYValue().doubleValue() ||
-                                currentData.getYValue().doubleValue() <= nextData.getYValue().doubleValue() ||
-                                currentData.getYValue().doubleValue() < threshold) {
-                            isPeak = false;
-                            break;
-                        }
-                    }
+        highlightLocalPeaks(threshold, distance, 0, 0);
+    }
 
-                    if (isPeak) {
-                        System.out.println("Локальный пик найден на X: " + currentData.getXValue() + ", Y: " + currentData.getYValue());
-                        XYChart.Data<Number, Number> peakData = new XYChart.Data<>(currentData.getXValue(), currentData.getYValue());
-                        Circle circle = new Circle(5, Color.BLUE);
-                        peakData.setNode(circle);
-                        peakSeries.getData().add(peakData);
-                    }
-                }
+    /**
+     * Метод для выделения локальных пиков последней серии спектра с фильтрами
+     * по выступанию и ширине (0 - без фильтра)
+     */
+    public void highlightLocalPeaks(double threshold, int distance, double minProminence, double minWidth) {
+        XYChart.Series<Number, Number> series = findSpectrumSeries(lineChart);
+        List<XYChart.Data<Number, Number>> peaks = new ArrayList<>();
+        if (series != null) {
+            Spectrum spectrum = Spectrum.fromSeries(series);
+            for (int i : PeakDetector.findPeaks(spectrum.y(), threshold, distance, minProminence, minWidth)) {
+                System.out.println("Локальный пик найден на X: " + spectrum.x(i) + ", Y: " + spectrum.y(i));
+                XYChart.Data<Number, Number> peakData = new XYChart.Data<>(spectrum.x(i), spectrum.y(i));
+                Circle circle = new Circle(5, Color.BLUE);
+                peakData.setNode(circle);
+                peaks.add(peakData);
             }
         }
+        peakSeries.getData().setAll(peaks);
 
         peakSeries.getNode().lookup(".chart-series-line").setStyle("-fx-stroke: transparent;");
     }
 
+    /**
+     * Последняя серия спектра на графике: служебные серии линии обрезки и пиков пропускаются.
+     *
+     * @return Серия спектра или null, если на графике только служебные серии.
+     */
+    static XYChart.Series<Number, Number> findSpectrumSeries(LineChart<Number, Number> chart) {
+        for (int i = chart.getData().size() - 1; i >= 0; i--) {
+            XYChart.Series<Number, Number> series = chart.getData().get(i);
+            if (!PEAK_SERIES_NAME.equals(series.getName()) && !CROP_LINE_SERIES_NAME.equals(series.getName())) {
+                return series;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Координаты пиков, отмеченных на графике методом {@link #highlightLocalPeaks}.
+     */
+    static double[] findPeakPositions(LineChart<Number, Number> chart) {
+        return chart.getData().stream()
+                .filter(series -> PEAK_SERIES_NAME.equals(series.getName()))
+                .flatMap(series -> series.getData().stream())
+                .mapToDouble(data -> data.getXValue().doubleValue())
+                .toArray();
+    }
+
     /**
      * Внутренний класс для окна ввода параметров
      */
@@ -178,12 +201,20 @@ public class ChartCropper {
             Label distanceLabel = new Label("Дистанция:");
             TextField distanceField = new TextField("10");
 
+            Label prominenceLabel = new Label("Мин. выступание:");
+            TextField prominenceField = new TextField("0");
+
+            Label widthLabel = new Label("Мин. ширина (точек):");
+            TextField widthField = new TextField("0");
+
             Button okButton = new Button("ОК");
             okButton.setOnAction(event -> {
                 try {
                     double threshold = Double.parseDouble(thresholdField.getText().trim());
                     int distance = Integer.parseInt(distanceField.getText().trim());
-                    cropper.highlightLocalPeaks(threshold, distance);
+                    double prominence = Double.parseDouble(prominenceField.getText().trim());
+                    double width = Double.parseDouble(widthField.getText().trim());
+                    cropper.highlightLocalPeaks(threshold, distance, prominence, width);
                     close();
                 } catch (NumberFormatException e) {
                     System.err.println("Неверный ввод: " + e.getMessage());
@@ -200,10 +231,14 @@ public class ChartCropper {
             gridPane.add(thresholdField, 1, 0);
             gridPane.add(distanceLabel, 0, 1);
             gridPane.add(distanceField, 1, 1);
-            gridPane.add(okButton, 0, 2);
-            gridPane.add(cancelButton, 1, 2);
-
-            Scene scene = new Scene(gridPane, 250, 100);
+            gridPane.add(prominenceLabel, 0, 2);
+            gridPane.add(prominenceField, 1, 2);
+            gridPane.add(widthLabel, 0, 3);
+            gridPane.add(widthField, 1, 3);
+            gridPane.add(okButton, 0, 4);
+            gridPane.add(cancelButton, 1, 4);
+
+            Scene scene = new Scene(gridPane, 300, 160);
             setScene(scene);
         }
 
@@ -0,0 +1,83 @@
+package com.example.funproject;
+
+import java.nio.ShortBuffer;
+
+/**
+ * Таблица накопленных по строкам сумм столбцов кадра.
+ * Строка y таблицы хранит сумму интенсивностей строк [0, y] каждого столбца, поэтому профиль
+ * любой полосы [startRow, endRow) считается разностью двух строк за O(ширины).
+ * <p>
+ * Суммы хранятся в int и переполняются по модулю 2^32; разность двух строк читается
+ * как беззнаковое число и верна, пока сумма столбца внутри полосы меньше 2^32,
+ * то есть для полос до 65537 строк.
+ */
+class ColumnPrefixSums {
+
+    private final GrayFrame source;
+    private final int width;
+    private final int height;
+    private final int[] prefix;
+
+    private ColumnPrefixSums(GrayFrame source, int width, int height, int[] prefix) {
+        this.source = source;
+        this.width = width;
+        this.height = height;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Строит таблицу для кадра за один проход по его данным.
+     */
+    static ColumnPrefixSums build(GrayFrame frame) {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        ShortBuffer samples = frame.samples();
+        int[] table = new int[width * height];
+
+        for (int x = 0; x < width && height > 0; x++) {
+            table[x] = samples.get(x) & 0xFFFF;
+        }
+        for (int y = 1; y < height; y++) {
+            int offset = y * width;
+            int previous = offset - width;
+            for (int x = 0; x < width; x++) {
+                table[offset + x] = (samples.get(offset + x) & 0xFFFF) + table[previous + x];
+            }
+        }
+        return new ColumnPrefixSums(frame, width, height, table);
+    }
+
+    /**
+     * Кадр, для которого построена таблица.
+     */
+    public GrayFrame getSource() {
+        return source;
+    }
+
+    /**
+     * Размер таблицы в байтах.
+     */
+    long sizeInBytes() {
+        return 4L * width * height;
+    }
+
+    /**
+     * Профиль полосы строк [startRow, endRow) в тех же единицах, что и
+     * {@link SpectrumIntegrator#columnProfile(GrayFrame)}.
+     */
+    double[] bandProfile(int startRow, int endRow) {
+        if (startRow < 0 || endRow > height || startRow >= endRow) {
+            throw new IllegalArgumentException("Неверный диапазон строк: [" + startRow + ", " + endRow + ")");
+        }
+        double[] profile = new double[width];
+        int endOffset = (endRow - 1) * width;
+        int startOffset = (startRow - 1) * width;
+        double scale = 1.0 / ((double) GrayFrame.MAX_VALUE * (endRow - startRow));
+
+        for (int x = 0; x < width; x++) {
+            int below = startRow > 0 ? prefix[startOffset + x] : 0;
+            profile[x] = Integer.toUnsignedLong(prefix[endOffset + x] - below) * scale;
+        }
+        return profile;
+    }
+}
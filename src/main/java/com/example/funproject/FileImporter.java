@@ -1,30 +1,69 @@
 package com.example.funproject;
 
-import javafx.scene.image.Image;
 import javafx.stage.FileChooser;
 import javafx.stage.Window;
 
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 class FileImporter {
 
-    public List<Image> importImages(Window window) {
-        List<Image> images = new ArrayList<>();
+    /**
+     * Импортирует изображения в фоне и переводит их в полутоновые кадры.
+     * Файлы декодируются параллельно; каждый готовый кадр передается в onFrameLoaded
+     * в потоке JavaFX в порядке выбора файлов.
+     *
+     * @return Запущенная задача импорта или null, если файлы не выбраны.
+     */
+    public FrameImportTask importImages(Window window, Consumer<GrayFrame> onFrameLoaded) {
         FileChooser fileChooser = createFileChooser("Open X-ray Data File",
-                new FileChooser.ExtensionFilter("Image Files", "*.png", "*.jpg", "*.jpeg", "*.bmp", "*.gif"));
+                new FileChooser.ExtensionFilter("Image Files", "*.png", "*.jpg", "*.jpeg", "*.bmp", "*.gif", "*.tif", "*.tiff"));
         List<File> files = fileChooser.showOpenMultipleDialog(window);
-        if (files != null) {
-            for (File file : files) {
-                try {
-                    images.add(new Image(new FileInputStream(file)));
-                } catch (FileNotFoundException e) {
-                    e.printStackTrace();
-                }
+        if (files == null || files.isEmpty()) {
+            return null;
+        }
+
+        FrameImportTask task = new FrameImportTask(files, onFrameLoaded);
+        task.setOnFailed(event -> task.getException().printStackTrace());
+        Thread thread = new Thread(task, "frame-import");
+        thread.setDaemon(true);
+        thread.start();
+        return task;
+    }
+
+    /**
+     * Импортирует необработанные 16-битные кадры детектора. Параметры кадра вводятся
+     * один раз для всех выбранных файлов; файлы отображаются в память без копирования.
+     *
+     * @return Кадры в порядке выбора файлов или null, если импорт отменен.
+     */
+    public List<GrayFrame> importRawFrames(Window window) {
+        FileChooser fileChooser = createFileChooser("Open Raw Detector Frames",
+                new FileChooser.ExtensionFilter("Raw Frames", "*.raw", "*.bin", "*.dat"));
+        List<File> files = fileChooser.showOpenMultipleDialog(window);
+        if (files == null || files.isEmpty()) {
+            return null;
+        }
+
+        RawImportDialog dialog = new RawImportDialog(window);
+        if (!dialog.showAndConfirm()) {
+            return null;
+        }
+
+        List<GrayFrame> frames = new ArrayList<>();
+        for (File file : files) {
+            try {
+                frames.add(RawFrameReader.map(file.toPath(), dialog.getFrameWidth(), dialog.getFrameHeight(),
+                        dialog.getOffset(), dialog.getByteOrder()));
+            } catch (IOException e) {
+                System.out.println("Не удалось импортировать файл: " + file);
+                e.printStackTrace();
             }
         }
-        return images;
+        return frames;
     }
 
     public File importTable(Window window) {
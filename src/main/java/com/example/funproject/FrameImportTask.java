@@ -0,0 +1,117 @@
+package com.example.funproject;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import javafx.scene.image.Image;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Фоновая задача импорта кадров. Файлы декодируются параллельно в пуле
+ * ограниченного размера, а готовые кадры передаются в поток JavaFX по одному,
+ * в порядке выбора файлов, не дожидаясь окончания всего импорта. Сама задача
+ * кадры не хранит: после передачи в поток JavaFX ими владеет только список вкладки.
+ */
+class FrameImportTask extends Task<Integer> {
+
+    // Одновременно в памяти находится не больше MAX_DECODERS декодированных изображений
+    private static final int MAX_DECODERS = 4;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final List<File> files;
+    private final Consumer<GrayFrame> onFrameLoaded;
+
+    /**
+     * @param files         Файлы изображений.
+     * @param onFrameLoaded Вызывается в потоке JavaFX для каждого загруженного кадра.
+     */
+    FrameImportTask(List<File> files, Consumer<GrayFrame> onFrameLoaded) {
+        this.files = List.copyOf(files);
+        this.onFrameLoaded = onFrameLoaded;
+    }
+
+    /**
+     * @return Число загруженных кадров.
+     */
+    @Override
+    protected Integer call() throws InterruptedException {
+        updateMessage("Импорт изображений");
+        int decoders = Math.max(1, Math.min(MAX_DECODERS, Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(decoders, runnable -> {
+            Thread thread = new Thread(runnable, "frame-import-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<GrayFrame>> futures = new ArrayList<>(files.size());
+            for (File file : files) {
+                futures.add(executor.submit(() -> decode(file)));
+            }
+
+            int loaded = 0;
+            for (int i = 0; i < futures.size(); i++) {
+                GrayFrame frame = awaitFrame(futures.get(i), files.get(i));
+                if (isCancelled()) {
+                    break;
+                }
+                if (frame != null) {
+                    loaded++;
+                    Platform.runLater(() -> {
+                        if (!isCancelled()) {
+                            onFrameLoaded.accept(frame);
+                        }
+                    });
+                }
+                updateProgress(i + 1, futures.size());
+            }
+            return loaded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Читает файл и переводит изображение в кадр. TIFF читаются напрямую в 16 бит,
+     * остальные форматы - через JavaFX. Поток файла закрывается сразу после декодирования.
+     */
+    private static GrayFrame decode(File file) throws IOException {
+        if (TiffFrameReader.isTiff(file.toPath())) {
+            return TiffFrameReader.read(file.toPath());
+        }
+        Image image;
+        try (InputStream input = Files.newInputStream(file.toPath())) {
+            image = new Image(input);
+        }
+        if (image.isError()) {
+            throw new IOException("Не удалось декодировать " + file, image.getException());
+        }
+        return GrayFrame.fromImage(image);
+    }
+
+    /**
+     * Ожидает кадр. Ошибка одного файла не прерывает импорт остальных.
+     *
+     * @return Кадр или null, если файл не удалось прочитать.
+     */
+    private static GrayFrame awaitFrame(Future<GrayFrame> future, File file) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            System.out.println("Не удалось импортировать файл: " + file);
+            e.getCause().printStackTrace();
+            return null;
+        }
+    }
+}
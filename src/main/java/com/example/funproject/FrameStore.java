@@ -0,0 +1,332 @@
+package com.example.funproject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Хранилище данных кадров с ограничением по памяти. Когда данные зарегистрированных
+ * кадров превышают бюджет, кадры, к которым дольше всего не обращались, выгружаются
+ * во временный файл и загружаются обратно при следующем обращении к {@link GrayFrame#samples()}.
+ * <p>
+ * Кадры не меняются после создания, поэтому каждый кадр записывается в файл один раз;
+ * при повторной выгрузке данные в памяти просто освобождаются. Запись идет в отдельном
+ * потоке, чтобы выгрузка не задерживала поток JavaFX: данные кадра остаются в памяти,
+ * пока запись не закончится, и если к кадру за это время обратятся, он не выгружается. Кадры, отображенные из файла
+ * ({@link RawFrameReader}), уже хранятся на диске и в бюджете не учитываются.
+ * <p>
+ * Хранилище ссылается на выгруженные кадры только слабо: место кадра в файле освобождается,
+ * когда кадр с данными в памяти возвращают из хранилища или когда сам кадр собран сборщиком мусора,
+ * и затем занимается кадром того же размера. Когда в файле не остается кадров, он обрезается.
+ * Методы потокобезопасны.
+ */
+class FrameStore {
+
+    private final long memoryBudget;
+    private final Set<GrayFrame> registered = Collections.newSetFromMap(new HashMap<>());
+    // Кадры, данные которых в памяти, в порядке последнего обращения
+    private final LinkedHashMap<GrayFrame, Boolean> resident = new LinkedHashMap<>(16, 0.75f, true);
+    // Места выгруженных кадров в файле; кадр сравнивается по ссылке, поэтому подходит WeakHashMap
+    private final Map<GrayFrame, Slot> slots = new WeakHashMap<>();
+    private final ReferenceQueue<GrayFrame> collected = new ReferenceQueue<>();
+    // Свободные места в файле по размеру
+    private final Map<Long, ArrayDeque<Long>> freeSlots = new HashMap<>();
+    // Кадры, запись которых в файл еще идет, и их будущие места
+    private final Map<GrayFrame, Slot> pendingWrites = new HashMap<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "frame-spill");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long residentBytes;
+
+    private Path spillFile;
+    private FileChannel spillChannel;
+    private long spillSize;
+    // Увеличивается при обрезке файла, чтобы не занять место, которого в файле уже нет
+    private int spillGeneration;
+
+    /**
+     * Место кадра в файле выгрузки. Попадает в очередь collected, если кадр собран сборщиком мусора.
+     */
+    private static final class Slot extends WeakReference<GrayFrame> {
+        final long offset;
+        final long size;
+        final int generation;
+
+        Slot(GrayFrame frame, long offset, int generation, ReferenceQueue<GrayFrame> queue) {
+            super(frame, queue);
+            this.offset = offset;
+            this.size = frame.sizeInBytes();
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * @param memoryBudget Наибольший объем данных кадров в памяти, в байтах.
+     */
+    FrameStore(long memoryBudget) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Бюджет памяти должен быть положительным: " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Берет кадр под управление хранилища. При превышении бюджета выгружаются другие кадры.
+     */
+    synchronized void register(GrayFrame frame) {
+        if (!registered.add(frame)) return;
+        frame.setStore(this);
+        ShortBuffer samples = frame.residentSamples();
+        if (samples != null && !samples.isDirect()) {
+            resident.put(frame, Boolean.TRUE);
+            residentBytes += frame.sizeInBytes();
+            evictOverBudget(frame);
+        }
+    }
+
+    /**
+     * Перестает учитывать кадр в бюджете, например после удаления его со вкладки.
+     * Если данные кадра в памяти, его место в файле выгрузки сразу освобождается. Выгруженный кадр
+     * не загружается: это произойдет, только если к нему обратятся, а если кадр больше
+     * не нужен, его место освободится после сборки мусора.
+     */
+    synchronized void release(GrayFrame frame) {
+        if (!registered.remove(frame)) return;
+        if (resident.remove(frame) != null) {
+            residentBytes -= frame.sizeInBytes();
+        }
+        if (frame.residentSamples() != null) {
+            frame.setStore(null);
+            freeSlot(frame);
+        }
+        reclaimSlots();
+    }
+
+    /**
+     * Учитывает в бюджете вспомогательные данные, построенные по кадрам, например таблицу
+     * накопленных сумм. При превышении бюджета выгружаются кадры.
+     */
+    synchronized void reserve(long bytes) {
+        residentBytes += bytes;
+        evictOverBudget(null);
+    }
+
+    /**
+     * Возвращает в бюджет место, учтенное через {@link #reserve(long)}.
+     */
+    synchronized void unreserve(long bytes) {
+        residentBytes -= bytes;
+    }
+
+    /**
+     * Отмечает обращение к кадру и при необходимости загружает его данные с диска.
+     */
+    synchronized ShortBuffer acquire(GrayFrame frame) {
+        ShortBuffer samples = frame.residentSamples();
+        if (!registered.contains(frame)) {
+            if (samples == null) {
+                // Кадр освобожден в выгруженном состоянии: загружаем и отдаем вызывающему коду
+                samples = load(frame);
+                frame.setResidentSamples(samples);
+                frame.setStore(null);
+                freeSlot(frame);
+                reclaimSlots();
+            }
+            return samples;
+        }
+        if (samples != null) {
+            if (resident.get(frame) == null) {
+                // Кадр еще записывается в файл: он снова нужен, поэтому остается в памяти
+                resident.put(frame, Boolean.TRUE);
+                residentBytes += frame.sizeInBytes();
+                evictOverBudget(frame);
+            }
+            return samples;
+        }
+
+        samples = load(frame);
+        frame.setResidentSamples(samples);
+        resident.put(frame, Boolean.TRUE);
+        residentBytes += frame.sizeInBytes();
+        evictOverBudget(frame);
+        return samples;
+    }
+
+    /**
+     * Данные кадра без отметки обращения: выгруженный кадр читается с диска, но не становится
+     * резидентным и не вытесняет другие кадры. Для разовых чтений, например построения миниатюр.
+     */
+    synchronized ShortBuffer peek(GrayFrame frame) {
+        ShortBuffer samples = frame.residentSamples();
+        return samples != null ? samples : load(frame);
+    }
+
+    /**
+     * Выгружает кадры в порядке давности обращения, пока данные в памяти превышают бюджет.
+     * Кадр keep не выгружается, даже если один не помещается в бюджет. Кадры, уже записанные
+     * в файл, освобождаются сразу, остальные - после записи в потоке frame-spill.
+     */
+    private void evictOverBudget(GrayFrame keep) {
+        Iterator<GrayFrame> iterator = resident.keySet().iterator();
+        while (residentBytes > memoryBudget && iterator.hasNext()) {
+            GrayFrame frame = iterator.next();
+            if (frame == keep) continue;
+            if (slots.containsKey(frame)) {
+                frame.setResidentSamples(null);
+            } else if (!pendingWrites.containsKey(frame)) {
+                Slot slot;
+                try {
+                    slot = allocateSlot(frame);
+                } catch (IOException e) {
+                    // Без файла выгрузки кадры остаются в памяти
+                    e.printStackTrace();
+                    return;
+                }
+                pendingWrites.put(frame, slot);
+                ShortBuffer samples = frame.residentSamples();
+                writer.execute(() -> write(frame, samples, slot));
+            }
+            iterator.remove();
+            residentBytes -= frame.sizeInBytes();
+        }
+    }
+
+    /**
+     * Выбирает место для кадра в файле: свободное место того же размера или конец файла.
+     */
+    private Slot allocateSlot(GrayFrame frame) throws IOException {
+        reclaimSlots();
+        if (spillChannel == null) {
+            spillFile = Files.createTempFile("xray-frames", ".raw");
+            spillFile.toFile().deleteOnExit();
+            spillChannel = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        ArrayDeque<Long> free = freeSlots.get(frame.sizeInBytes());
+        long offset;
+        if (free == null || free.isEmpty()) {
+            offset = spillSize;
+            spillSize += frame.sizeInBytes();
+        } else {
+            offset = free.pop();
+        }
+        return new Slot(frame, offset, spillGeneration, collected);
+    }
+
+    /**
+     * Записывает данные кадра в его место в файле. Выполняется в потоке frame-spill.
+     */
+    private void write(GrayFrame frame, ShortBuffer samples, Slot slot) {
+        int count = frame.getWidth() * frame.getHeight();
+        ByteBuffer bytes = ByteBuffer.allocate(2 * count).order(ByteOrder.nativeOrder());
+        bytes.asShortBuffer().put(0, samples, 0, count);
+        IOException failure = null;
+        try {
+            while (bytes.hasRemaining()) {
+                spillChannel.write(bytes, slot.offset + bytes.position());
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+        finishWrite(frame, slot, failure);
+    }
+
+    /**
+     * Завершает выгрузку: данные в памяти освобождаются, если кадр все еще зарегистрирован
+     * и к нему не обращались во время записи. При ошибке кадр возвращается в память.
+     */
+    private synchronized void finishWrite(GrayFrame frame, Slot slot, IOException failure) {
+        pendingWrites.remove(frame);
+        if (failure != null || !registered.contains(frame)) {
+            slot.clear();
+            reuse(slot);
+            if (failure != null) {
+                failure.printStackTrace();
+                if (registered.contains(frame) && !resident.containsKey(frame)) {
+                    resident.put(frame, Boolean.TRUE);
+                    residentBytes += frame.sizeInBytes();
+                }
+            }
+            reclaimSlots();
+            return;
+        }
+        slots.put(frame, slot);
+        if (!resident.containsKey(frame)) {
+            frame.setResidentSamples(null);
+        }
+    }
+
+    /**
+     * Освобождает место кадра в файле, если кадр был выгружен.
+     */
+    private void freeSlot(GrayFrame frame) {
+        Slot slot = slots.remove(frame);
+        if (slot != null) {
+            // Очищенная ссылка не попадет в очередь collected
+            slot.clear();
+            reuse(slot);
+        }
+    }
+
+    private void reuse(Slot slot) {
+        if (slot.generation == spillGeneration) {
+            freeSlots.computeIfAbsent(slot.size, size -> new ArrayDeque<>()).push(slot.offset);
+        }
+    }
+
+    /**
+     * Освобождает места собранных сборщиком мусора кадров и обрезает файл, если в нем не осталось кадров.
+     */
+    private void reclaimSlots() {
+        for (Reference<? extends GrayFrame> reference; (reference = collected.poll()) != null; ) {
+            reuse((Slot) reference);
+        }
+        if (spillSize > 0 && slots.isEmpty() && pendingWrites.isEmpty()) {
+            try {
+                spillChannel.truncate(0);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+            freeSlots.clear();
+            spillSize = 0;
+            spillGeneration++;
+        }
+    }
+
+    private ShortBuffer load(GrayFrame frame) {
+        long offset = slots.get(frame).offset;
+        ByteBuffer bytes = ByteBuffer.allocate((int) frame.sizeInBytes()).order(ByteOrder.nativeOrder());
+        try {
+            while (bytes.hasRemaining()) {
+                if (spillChannel.read(bytes, offset + bytes.position()) < 0) {
+                    throw new IOException("Файл выгрузки кадров поврежден: " + spillFile);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        bytes.flip();
+        return bytes.asShortBuffer();
+    }
+}
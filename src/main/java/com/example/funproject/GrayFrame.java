@@ -0,0 +1,273 @@
+package com.example.funproject;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+/**
+ * Рентгеновский кадр: одноканальные 16-битные интенсивности без знака, построчно.
+ * Создается один раз при импорте и используется всеми расчетами; изображение JavaFX
+ * строится из него только для показа.
+ * <p>
+ * Кадр сравнивается по ссылке и служит ключом для линий и состояния просмотра.
+ * Если кадр зарегистрирован в {@link FrameStore}, его данные могут быть временно
+ * выгружены на диск; {@link #samples()} загружает их обратно.
+ * <p>
+ * Для показа интенсивности переводятся в 8 бит через окно отображения {@link DisplayWindow}.
+ * Кадры из 8-битных изображений показываются во всем диапазоне, то есть как исходный файл;
+ * для 16-битных данных детектора окно один раз вычисляется по диапазону кадра и передается
+ * полученным из него кадрам, поэтому результаты обработки сравнимы с исходным кадром.
+ */
+public class GrayFrame {
+
+    /**
+     * Максимальное значение интенсивности.
+     */
+    static final int MAX_VALUE = 0xFFFF;
+
+    /**
+     * Диапазон интенсивностей low..high, который при показе переводится в 256 уровней серого.
+     */
+    record DisplayWindow(int low, int high) {
+
+        /**
+         * Весь 16-битный диапазон: обратное преобразование к расширению 8 бит в 16 (умножению на 257).
+         */
+        static final DisplayWindow FULL = new DisplayWindow(0, MAX_VALUE);
+    }
+
+    // Уровни серого для окна FULL: старшие 8 бит интенсивности
+    private static final int[] FULL_LEVELS = grayLevels(DisplayWindow.FULL);
+
+    private final int width;
+    private final int height;
+    // null, пока данные кадра выгружены хранилищем на диск
+    private volatile ShortBuffer samples;
+    private volatile FrameStore store;
+    // null, пока окно не вычислено по данным кадра
+    private volatile DisplayWindow window;
+
+    /**
+     * @param window Окно отображения или null, чтобы вычислить его по диапазону кадра при первом показе.
+     */
+    GrayFrame(int width, int height, ShortBuffer samples, DisplayWindow window) {
+        if (samples.capacity() < width * height) {
+            throw new IllegalArgumentException("Недостаточно данных для кадра " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.samples = samples;
+        this.window = window;
+    }
+
+    GrayFrame(int width, int height, ShortBuffer samples) {
+        this(width, height, samples, DisplayWindow.FULL);
+    }
+
+    GrayFrame(int width, int height, short[] samples) {
+        this(width, height, ShortBuffer.wrap(samples));
+    }
+
+    /**
+     * Новый кадр, полученный из этого, например обработкой или вырезанием области.
+     * Окно отображения берется от этого кадра.
+     */
+    GrayFrame derive(int width, int height, short[] samples) {
+        return new GrayFrame(width, height, ShortBuffer.wrap(samples), displayWindow());
+    }
+
+    /**
+     * Создает кадр из изображения JavaFX. Интенсивность пикселя (r + g + b) / 3
+     * переводится из диапазона 0..255 в 0..65535.
+     */
+    static GrayFrame fromImage(Image image) {
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        short[] samples = new short[width * height];
+        int[] row = new int[width];
+
+        for (int y = 0; y < height; y++) {
+            image.getPixelReader().getPixels(0, y, width, 1, PixelFormat.getIntArgbInstance(), row, 0, width);
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                int pixel = row[x];
+                int sum = ((pixel >> 16) & 0xFF) + ((pixel >> 8) & 0xFF) + (pixel & 0xFF);
+                // sum * 65535 / 765 = sum * 257 / 3, с округлением
+                samples[offset + x] = (short) ((sum * 257 * 2 + 3) / 6);
+            }
+        }
+        return new GrayFrame(width, height, samples);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Данные кадра: width * height значений, построчно. Читать следует абсолютными
+     * методами get(index), не меняя позицию буфера. Выгруженный кадр загружается с диска;
+     * полученный буфер остается действительным, даже если кадр выгрузят снова.
+     */
+    ShortBuffer samples() {
+        FrameStore owner = store;
+        return owner != null ? owner.acquire(this) : samples;
+    }
+
+    /**
+     * Данные кадра для разового чтения: выгруженный кадр читается с диска, но порядок
+     * вытеснения в хранилище не меняется.
+     */
+    ShortBuffer peekSamples() {
+        FrameStore owner = store;
+        return owner != null ? owner.peek(this) : samples;
+    }
+
+    /**
+     * Данные кадра без обращения к хранилищу; null, если кадр выгружен.
+     */
+    ShortBuffer residentSamples() {
+        return samples;
+    }
+
+    void setResidentSamples(ShortBuffer samples) {
+        this.samples = samples;
+    }
+
+    void setStore(FrameStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Размер данных кадра в байтах.
+     */
+    long sizeInBytes() {
+        return 2L * width * height;
+    }
+
+    /**
+     * Копирует данные кадра в массив.
+     */
+    short[] toArray() {
+        short[] copy = new short[width * height];
+        samples().get(0, copy);
+        return copy;
+    }
+
+    /**
+     * Окно отображения кадра. Если оно не задано, вычисляется по наименьшей и наибольшей
+     * интенсивности один раз и запоминается.
+     */
+    DisplayWindow displayWindow() {
+        DisplayWindow current = window;
+        if (current == null) {
+            ShortBuffer samples = peekSamples();
+            int count = width * height;
+            int min = MAX_VALUE;
+            int max = 0;
+            for (int i = 0; i < count; i++) {
+                int value = samples.get(i) & 0xFFFF;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            current = count > 0 ? new DisplayWindow(min, max) : DisplayWindow.FULL;
+            window = current;
+        }
+        return current;
+    }
+
+    /**
+     * Строит 8-битное полутоновое изображение для показа в окне {@link #displayWindow()}.
+     */
+    Image toImage() {
+        return toImage(samples());
+    }
+
+    private Image toImage(ShortBuffer samples) {
+        int[] levels = levels(displayWindow());
+        WritableImage image = new WritableImage(Math.max(1, width), Math.max(1, height));
+        PixelWriter writer = image.getPixelWriter();
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                row[x] = levels[samples.get(offset + x) & 0xFFFF];
+            }
+            writer.setPixels(0, y, width, 1, PixelFormat.getIntArgbInstance(), row, 0, width);
+        }
+        return image;
+    }
+
+    /**
+     * Строит уменьшенное изображение, вписанное в квадрат maxSize x maxSize.
+     * Каждый пиксель - среднее по блоку factor x factor исходного кадра,
+     * поэтому полное изображение при этом не создается. Окно отображения то же, что
+     * у полного изображения. Данные читаются через {@link #peekSamples()}: построение
+     * миниатюры не считается обращением к кадру.
+     */
+    Image toImage(int maxSize) {
+        ShortBuffer samples = peekSamples();
+        int factor = Math.max(1, (Math.max(width, height) + maxSize - 1) / maxSize);
+        if (factor == 1) {
+            return toImage(samples);
+        }
+        int[] levels = levels(displayWindow());
+        int scaledWidth = (width + factor - 1) / factor;
+        int scaledHeight = (height + factor - 1) / factor;
+        WritableImage image = new WritableImage(scaledWidth, scaledHeight);
+        long[] sums = new long[scaledWidth];
+        int[] row = new int[scaledWidth];
+
+        for (int blockY = 0; blockY < scaledHeight; blockY++) {
+            Arrays.fill(sums, 0);
+            int startY = blockY * factor;
+            int endY = Math.min(height, startY + factor);
+            for (int y = startY; y < endY; y++) {
+                int offset = y * width;
+                for (int x = 0; x < width; x++) {
+                    sums[x / factor] += samples.get(offset + x) & 0xFFFF;
+                }
+            }
+            for (int blockX = 0; blockX < scaledWidth; blockX++) {
+                int blockWidth = Math.min(width, (blockX + 1) * factor) - blockX * factor;
+                row[blockX] = levels[(int) (sums[blockX] / ((long) blockWidth * (endY - startY)))];
+            }
+            image.getPixelWriter().setPixels(0, blockY, scaledWidth, 1, PixelFormat.getIntArgbInstance(), row, 0, scaledWidth);
+        }
+        return image;
+    }
+
+    private static int[] levels(DisplayWindow window) {
+        return DisplayWindow.FULL.equals(window) ? FULL_LEVELS : grayLevels(window);
+    }
+
+    /**
+     * Цвета пикселей для всех интенсивностей 0..{@link #MAX_VALUE} в окне window:
+     * значения ниже окна черные, выше - белые.
+     */
+    private static int[] grayLevels(DisplayWindow window) {
+        int[] levels = new int[MAX_VALUE + 1];
+        boolean full = DisplayWindow.FULL.equals(window);
+        long range = window.high() - window.low();
+        for (int value = 0; value <= MAX_VALUE; value++) {
+            int gray;
+            if (full) {
+                gray = value >>> 8;
+            } else if (range <= 0) {
+                gray = value > window.low() ? 255 : 0;
+            } else {
+                // Округление до ближайшего уровня
+                gray = (int) Math.max(0, Math.min(255, ((value - window.low()) * 510L + range) / (2 * range)));
+            }
+            levels[value] = 0xFF000000 | (gray << 16) | (gray << 8) | gray;
+        }
+        return levels;
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.funproject;
 
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.concurrent.WorkerStateEvent;
 import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.geometry.Side;
 import javafx.scene.Node;
+import javafx.scene.Scene;
 import javafx.scene.chart.LineChart;
 import javafx.scene.control.*;
 import javafx.scene.image.Image;
@@ -12,6 +18,7 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
+import javafx.stage.Stage;
 
 import java.io.File;
 import java.io.FileWriter;
@@ -27,6 +34,8 @@ public class HelloController {
     private VBox sidebar;
     @FXML
     protected TabPane tabPane;
+    @FXML
+    private ProgressBar progressBar;
 
     // Вспомогательные классы
     private final FileImporter fileImporter = new FileImporter();
@@ -35,22 +44,30 @@ public class HelloController {
     private SpectralDataTable spectralDataTable;
 
     // Хранилища данных
-    protected Map<Tab, List<Image>> xRayImages = new HashMap<>();
+    protected Map<Tab, ObservableList<GrayFrame>> xRayImages = new HashMap<>();
     private Map<Tab, ImageProcessor> imageProcessors = new HashMap<>();
-    protected Map<Image, List<LineInfo>> imageLines;
+    private final Map<Tab, FrameImportTask> importTasks = new HashMap<>();
+    protected Map<GrayFrame, List<LineInfo>> imageLines;
     protected Map<Tab, List<LineInfo>> chartLines; // Здесь таб для графиков
     protected Map<Tab, TableView<SpectralDataTable.SpectralData>> spectralDataTableViews = new HashMap<>();
 
     // Параметры для сглаживания
     private int kernelSize = 5;
 
+    // Бюджет памяти для данных кадров, МБ; задается свойством -Dfunproject.frameMemoryMb
+    private static final long FRAME_MEMORY_MB = Long.getLong("funproject.frameMemoryMb",
+            Runtime.getRuntime().maxMemory() / 4 / (1024 * 1024));
+    protected final FrameStore frameStore = new FrameStore(Math.max(1, FRAME_MEMORY_MB) * 1024 * 1024);
+
     /**
      * Инициализация контроллера.
      */
     @FXML
     public void initialize() {
         tabManager = new TabManager(tabPane, imageProcessors);
-        spectralDataVisualization = new SpectralDataVisualization();
+        spectralDataVisualization = new SpectralDataVisualization(frameStore);
+        progressBar.progressProperty().bind(spectralDataVisualization.extractionProgressProperty());
+        progressBar.visibleProperty().bind(spectralDataVisualization.extractingProperty());
         spectralDataTable = new SpectralDataTable();
         imageLines = new HashMap<>();
         chartLines = new HashMap<>();
@@ -67,14 +84,84 @@ public class HelloController {
     }
 
     /**
-     * Импорт рентгеновского изображения.
+     * Импорт рентгеновских изображений. Кадры загружаются в фоне, и миниатюры
+     * появляются на вкладке по мере готовности. Новый импорт заменяет список кадров вкладки.
      */
     @FXML
     public void handleImportXRayImage() {
         Tab currentTab = tabPane.getSelectionModel().getSelectedItem();
-        List<Image> importedImages = fileImporter.importImages(mainContainer.getScene().getWindow());
-        xRayImages.put(currentTab, importedImages);
-        imageProcessors.get(currentTab).putImagesAndButtonsOnTabPane(xRayImages, currentTab);
+        ObservableList<GrayFrame> importedFrames = createFrameList();
+
+        FrameImportTask task = fileImporter.importImages(mainContainer.getScene().getWindow(), importedFrames::add);
+        if (task == null) return;
+
+        FrameImportTask previousTask = importTasks.put(currentTab, task);
+        if (previousTask != null) {
+            previousTask.cancel();
+        }
+        // Завершенная задача больше не нужна вкладке
+        EventHandler<WorkerStateEvent> forgetTask = event -> importTasks.remove(currentTab, task);
+        task.addEventHandler(WorkerStateEvent.WORKER_STATE_SUCCEEDED, forgetTask);
+        task.addEventHandler(WorkerStateEvent.WORKER_STATE_FAILED, forgetTask);
+        task.addEventHandler(WorkerStateEvent.WORKER_STATE_CANCELLED, forgetTask);
+        replaceTabFrames(currentTab, importedFrames);
+    }
+
+    /**
+     * Импорт необработанных 16-битных кадров детектора. Кадры отображаются в память
+     * и заменяют список кадров вкладки.
+     */
+    @FXML
+    public void handleImportRawFrames() {
+        Tab currentTab = tabPane.getSelectionModel().getSelectedItem();
+        List<GrayFrame> frames = fileImporter.importRawFrames(mainContainer.getScene().getWindow());
+        if (frames == null) return;
+
+        FrameImportTask previousTask = importTasks.remove(currentTab);
+        if (previousTask != null) {
+            previousTask.cancel();
+        }
+        ObservableList<GrayFrame> importedFrames = createFrameList();
+        importedFrames.setAll(frames);
+        replaceTabFrames(currentTab, importedFrames);
+    }
+
+    /**
+     * Заменяет список кадров вкладки; кадры прежнего списка возвращаются из хранилища,
+     * а их миниатюры убираются из кэша.
+     */
+    private void replaceTabFrames(Tab tab, ObservableList<GrayFrame> frames) {
+        ObservableList<GrayFrame> previousFrames = xRayImages.put(tab, frames);
+        if (previousFrames != null) {
+            for (GrayFrame frame : previousFrames) {
+                releaseFrame(frame);
+                imageProcessors.get(tab).evictThumbnail(frame);
+            }
+        }
+        imageProcessors.get(tab).putImagesAndButtonsOnTabPane(xRayImages, tab);
+    }
+
+    /**
+     * Создает список кадров вкладки. Добавленные в список кадры передаются под управление
+     * хранилища кадров, удаленные - возвращаются из него.
+     */
+    protected ObservableList<GrayFrame> createFrameList() {
+        ObservableList<GrayFrame> frames = FXCollections.observableArrayList();
+        frames.addListener((ListChangeListener<GrayFrame>) change -> {
+            while (change.next()) {
+                change.getRemoved().forEach(this::releaseFrame);
+                change.getAddedSubList().forEach(frameStore::register);
+            }
+        });
+        return frames;
+    }
+
+    /**
+     * Возвращает кадр из хранилища и освобождает построенные по нему данные предпросмотра.
+     */
+    private void releaseFrame(GrayFrame frame) {
+        frameStore.release(frame);
+        spectralDataVisualization.releaseFrame(frame);
     }
 
     /**
@@ -103,32 +190,40 @@ public class HelloController {
     public void processImage(ActionEvent event) {
         Tab currentTab = tabPane.getSelectionModel().getSelectedItem();
 
-        Image selectedImage = imageProcessors.get(currentTab).selectedImage;
+        GrayFrame selectedFrame = imageProcessors.get(currentTab).selectedFrame;
 
-        if (selectedImage == null) {
+        if (selectedFrame == null) {
             System.out.println("Изображение не выбрано.");
             return;
         }
 
         // Открытие диалогового окна обработки изображения
-        ImageProcessingWindow window = new ImageProcessingWindow(selectedImage, kernelSize);
-        Image smoothedImage = window.getResultImage();
+        ImageProcessingWindow window = new ImageProcessingWindow(selectedFrame, kernelSize);
+        GrayFrame smoothedFrame = window.getResultFrame();
 
-        if (smoothedImage != null) {
-            updateImageInTab(currentTab, selectedImage, smoothedImage);
-            imageProcessors.get(currentTab).selectedImage = smoothedImage;
+        if (smoothedFrame != null) {
+            updateImageInTab(currentTab, selectedFrame, smoothedFrame);
+            imageProcessors.get(currentTab).selectedFrame = smoothedFrame;
         }
     }
 
     /**
      * Обновление изображения на вкладке.
      */
-    private void updateImageInTab(Tab currentTab, Image oldImage, Image newImage) {
-        List<Image> currentImages = xRayImages.getOrDefault(currentTab, new ArrayList<>());
-        int selectedIndex = currentImages.indexOf(oldImage);
+    private void updateImageInTab(Tab currentTab, GrayFrame oldFrame, GrayFrame newFrame) {
+        ObservableList<GrayFrame> currentImages = xRayImages.getOrDefault(currentTab, FXCollections.observableArrayList());
+        int selectedIndex = currentImages.indexOf(oldFrame);
         if (selectedIndex != -1) {
-            currentImages.set(selectedIndex, newImage);
-            imageProcessors.get(currentTab).imageView.setImage(newImage);
+            ImageProcessor imageProcessor = imageProcessors.get(currentTab);
+            // Обработанный кадр показывается с масштабом и положением исходного
+            double[] state = imageProcessor.imageViewStates.remove(oldFrame);
+            if (state != null) {
+                imageProcessor.imageViewStates.put(newFrame, state);
+            }
+            // Замена в списке может сама выбрать новый кадр; showFrame не строит его изображение дважды
+            currentImages.set(selectedIndex, newFrame);
+            imageProcessor.evictThumbnail(oldFrame);
+            imageProcessor.showFrame(newFrame);
             xRayImages.put(currentTab, currentImages);
             imageProcessors.get(currentTab).putImagesAndButtonsOnTabPane(xRayImages, currentTab);
         } else {
@@ -147,7 +242,6 @@ public class HelloController {
         Tab currentTab = tabPane.getSelectionModel().getSelectedItem();
         if (currentTab == null) return;
 
-        Image selectedImage = imageProcessors.get(currentTab).selectedImage;
         TabPane currentInnerTabPane = tabManager.innerTableAndChartTabPanes.get(currentTab);
 
         ContextMenu visualizationMenu = new ContextMenu();
@@ -155,11 +249,12 @@ public class HelloController {
         MenuItem imageBasedItem = new MenuItem("Визуализировать по изображению");
         imageBasedItem.setOnAction(e -> {
             ImageView imageView = imageProcessors.get(currentTab).imageView;
+            GrayFrame selectedFrame = imageProcessors.get(currentTab).selectedFrame;
             TableView<SpectralDataTable.SpectralData> tableView = spectralDataTableViews.get(currentTab);
             if (spectralDataVisualization.isInVisualizationMode) {
                 spectralDataVisualization.exitVisualizationMode((Pane) imageView.getParent());
             } else {
-                spectralDataVisualization.enterVisualizationMode(imageView, currentTab, currentInnerTabPane, tableView);
+                spectralDataVisualization.enterVisualizationMode(imageView, selectedFrame, currentTab, currentInnerTabPane, tableView);
             }
         });
 
@@ -172,7 +267,26 @@ public class HelloController {
             spectralDataVisualization.visualizeFromTable(currentTab, currentChart, tableView);
         });
 
-        visualizationMenu.getItems().addAll(imageBasedItem, tableBasedItem);
+        CheckMenuItem previewItem = new CheckMenuItem("Предпросмотр при перетаскивании");
+        previewItem.setSelected(spectralDataVisualization.isLivePreview());
+        previewItem.setOnAction(e -> spectralDataVisualization.setLivePreview(previewItem.isSelected()));
+
+        MenuItem regionItem = new MenuItem("Показать выделенную область");
+        regionItem.setOnAction(e -> {
+            Image regionImage = spectralDataVisualization.getSelectedRegionImage();
+            if (regionImage == null) {
+                System.out.println("Область изображения не выделена.");
+                return;
+            }
+            ImageView regionView = new ImageView(regionImage);
+            regionView.setPreserveRatio(true);
+            Stage regionStage = new Stage();
+            regionStage.setTitle("Выделенная область");
+            regionStage.setScene(new Scene(new ScrollPane(regionView), 800, 300));
+            regionStage.show();
+        });
+
+        visualizationMenu.getItems().addAll(imageBasedItem, tableBasedItem, previewItem, regionItem);
         visualizationMenu.show((Node) actionEvent.getSource(), Side.BOTTOM, 0, 0);
     }
 
@@ -194,7 +308,7 @@ public class HelloController {
 
         // Линии с вкладок
         List<LineInfo> lineChartInfos = chartLines.get(currentInnerTab);
-        List<LineInfo> lineImageInfos = imageLines.get(imageProcessors.get(selectedTab).selectedImage);
+        List<LineInfo> lineImageInfos = imageLines.get(imageProcessors.get(selectedTab).selectedFrame);
 
         // Открытие диалогового окна калибровки
         new CalibrationDialog(selectedTab, lineImageInfos, lineChartInfos, currentChart, tableViewToUpdate);
@@ -9,7 +9,6 @@ import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
@@ -31,7 +30,7 @@ public class ImageControlPanel extends HBox {
 
     private final ImageProcessor imageProcessor;
     private final TabPane innerTabPane;
-    private final Map<Image, List<LineInfo>> imageLines;
+    private final Map<GrayFrame, List<LineInfo>> imageLines;
     private final Map<Tab, List<LineInfo>> chartLines;
     private final ComboBox<String> lineTypeComboBox;
     private final TextField elementInput;
@@ -85,7 +84,7 @@ public class ImageControlPanel extends HBox {
     }
 
     private void handleClearImageButtonClick(ImageView imageView) {
-        Image selectedImage = imageProcessor.selectedImage;
+        GrayFrame selectedImage = imageProcessor.selectedFrame;
         if (imageView != null && selectedImage != null) {
             Pane imageContainer = (Pane) imageView.getParent();
             List<LineInfo> linesToRemove = imageLines.get(selectedImage);
@@ -122,7 +121,7 @@ public class ImageControlPanel extends HBox {
     }
 
     private void handleResetButtonClick(ImageView imageView) {
-        Image selectedImage = imageProcessor.selectedImage;
+        GrayFrame selectedImage = imageProcessor.selectedFrame;
         if (imageView != null && selectedImage != null) {
             imageView.setTranslateX(0);
             imageView.setTranslateY(0);
@@ -237,7 +236,7 @@ public class ImageControlPanel extends HBox {
         }
 
         LineInfo lineInfo = new LineInfo(null, peakLine, finalXPosition, lineTypeComboBox.getValue(), elementInput.getText(), Double.parseDouble(angleInput.getText()));
-        imageLines.computeIfAbsent(imageProcessor.getSelectedImage(), k -> new ArrayList<>()).add(lineInfo);
+        imageLines.computeIfAbsent(imageProcessor.getSelectedFrame(), k -> new ArrayList<>()).add(lineInfo);
 
         setupImageViewLineDragHandlers(peakLine, imageView, lineInfo);
     }
@@ -4,13 +4,10 @@ import javafx.beans.binding.Bindings;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.scene.image.PixelReader;
-import javafx.scene.image.PixelWriter;
-import javafx.scene.image.WritableImage;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.HBox;
@@ -24,8 +21,8 @@ import javafx.stage.Stage;
 
 public class ImageProcessingWindow {
 
-    private Image originalImage;
-    private Image resultImage;
+    private GrayFrame originalFrame;
+    private GrayFrame resultFrame;
     private boolean isTopPointSet = false, isBottomPointSet = false;
     private Circle topPoint, bottomPoint;
     private Label angleLabel, pointsAngleLabel;
@@ -33,16 +30,16 @@ public class ImageProcessingWindow {
     private double originalImageWidth, originalImageHeight;
     private double scale = 1.0;
 
-    public ImageProcessingWindow(Image image, int initialKernelSize) {
+    public ImageProcessingWindow(GrayFrame frame, int initialKernelSize) {
         Stage stage = new Stage();
         stage.initModality(Modality.APPLICATION_MODAL);
         stage.setTitle("Обработка изображения");
 
-        this.originalImage = image;
-        this.originalImageWidth = image.getWidth();
-        this.originalImageHeight = image.getHeight();
+        this.originalFrame = frame;
+        this.originalImageWidth = frame.getWidth();
+        this.originalImageHeight = frame.getHeight();
 
-        ImageView imageView = new ImageView(image);
+        ImageView imageView = new ImageView(frame.toImage());
         imageView.setPreserveRatio(true);
 
         StackPane imagePane = new StackPane(imageView);
@@ -62,8 +59,8 @@ public class ImageProcessingWindow {
         Button smoothButton = new Button("Сгладить");
         smoothButton.setOnAction(e -> {
             int kernelSize = Integer.parseInt(kernelSizeInput.getText());
-            resultImage = imageSmoothing(originalImage, kernelSize);
-            imageView.setImage(resultImage);
+            resultFrame = imageSmoothing(originalFrame, kernelSize);
+            imageView.setImage(resultFrame.toImage());
         });
 
         pointsAngleLabel = new Label("Угол между точками: 0°");
@@ -71,13 +68,16 @@ public class ImageProcessingWindow {
 
         TextField angleInput = new TextField("0");
         Label angleInputLabel = new Label("Введите угол поворота:");
+        ComboBox<ImageTransforms.Interpolation> interpolationBox = new ComboBox<>();
+        interpolationBox.getItems().addAll(ImageTransforms.Interpolation.values());
+        interpolationBox.setValue(ImageTransforms.Interpolation.NEAREST);
 
         Button rotateButton = new Button("Повернуть");
         rotateButton.setOnAction(e -> {
             double angle = Double.parseDouble(angleInput.getText());
             currentAngle += angle; // Обновляем текущий угол поворота
-            resultImage = rotateImage(originalImage, currentAngle);
-            imageView.setImage(resultImage);
+            resultFrame = rotateImage(originalFrame, currentAngle, interpolationBox.getValue());
+            imageView.setImage(resultFrame.toImage());
             angleLabel.setText(String.format("Угол поворота: %.2f°", currentAngle));
 
             // Очистить старые точки и сбросить состояние рисования
@@ -96,7 +96,7 @@ public class ImageProcessingWindow {
         HBox kernelBox = new HBox(10, kernelSizeLabel, kernelSizeInput, smoothButton);
         kernelBox.setAlignment(Pos.CENTER);
 
-        HBox angleBox = new HBox(10, angleInputLabel, angleInput, rotateButton);
+        HBox angleBox = new HBox(10, angleInputLabel, angleInput, interpolationBox, rotateButton);
         angleBox.setAlignment(Pos.CENTER);
 
         layout.getChildren().addAll(parentPane, kernelBox, pointsAngleLabel, angleBox, angleLabel);
@@ -160,76 +160,18 @@ public class ImageProcessingWindow {
         return -Math.toDegrees(Math.atan2(deltaX, deltaY));
     }
 
-    private Image rotateImage(Image image, double angle) {
-        int width = (int) image.getWidth();
-        int height = (int) image.getHeight();
-        WritableImage rotatedImage = new WritableImage(width, height);
-        PixelReader pixelReader = image.getPixelReader();
-        PixelWriter pixelWriter = rotatedImage.getPixelWriter();
-
-        double centerX = width / 2.0;
-        double centerY = height / 2.0;
-        double radians = Math.toRadians(angle);
-
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int newX = (int) ((x - centerX) * Math.cos(radians) - (y - centerY) * Math.sin(radians) + centerX);
-                int newY = (int) ((x - centerX) * Math.sin(radians) + (y - centerY) * Math.cos(radians) + centerY);
-
-                if (newX >= 0 && newX < width && newY >= 0 && newY < height) {
-                    pixelWriter.setColor(x, y, pixelReader.getColor(newX, newY));
-                } else {
-                    pixelWriter.setColor(x, y, Color.TRANSPARENT);
-                }
-            }
-        }
-
-        return rotatedImage;
-    }
-
-    private Image imageSmoothing(Image originalImage, int kernelSize) {
-        int width = (int) originalImage.getWidth();
-        int height = (int) originalImage.getHeight();
-
-        WritableImage blurredImage = new WritableImage(width, height);
-        PixelReader pixelReader = originalImage.getPixelReader();
-        PixelWriter pixelWriter = blurredImage.getPixelWriter();
-
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                Color averageColor = calculateAverageColor(pixelReader, x, y, width, height, kernelSize);
-                pixelWriter.setColor(x, y, averageColor);
-            }
-        }
-
-        return blurredImage;
+    private GrayFrame rotateImage(GrayFrame frame, double angle, ImageTransforms.Interpolation interpolation) {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        short[] rotated = ImageTransforms.rotate(frame.toArray(), width, height, angle, interpolation);
+        return frame.derive(width, height, rotated);
     }
 
-    private Color calculateAverageColor(PixelReader pixelReader, int x, int y, int width, int height, int kernelSize) {
-        double red = 0.0;
-        double green = 0.0;
-        double blue = 0.0;
-        double opacity = 0.0;
-        int count = 0;
-        int halfKernel = kernelSize / 2;
-
-        for (int ny = -halfKernel; ny <= halfKernel; ny++) {
-            for (int nx = -halfKernel; nx <= halfKernel; nx++) {
-                int currentX = x + nx;
-                int currentY = y + ny;
-
-                if (currentX >= 0 && currentX < width && currentY >= 0 && currentY < height) {
-                    Color color = pixelReader.getColor(currentX, currentY);
-                    red += color.getRed();
-                    green += color.getGreen();
-                    blue += color.getBlue();
-                    opacity += color.getOpacity();
-                    count++;
-                }
-            }
-        }
-
-        return new Color(red / count, green / count, blue / count, opacity / count);
+    private GrayFrame imageSmoothing(GrayFrame frame, int kernelSize) {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        short[] blurred = ImageTransforms.boxBlur(frame.toArray(), width, height, kernelSize);
+        return frame.derive(width, height, blurred);
     }
 
     private void handleScroll(ScrollEvent event) {
@@ -249,7 +191,7 @@ public class ImageProcessingWindow {
 
 
 
-    public Image getResultImage() {
-        return resultImage;
+    public GrayFrame getResultFrame() {
+        return resultFrame;
     }
 }
\ No newline at end of file
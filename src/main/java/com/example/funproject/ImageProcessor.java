@@ -1,47 +1,47 @@
 package com.example.funproject;
 
+import javafx.collections.ObservableList;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.scene.layout.TilePane;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 public class ImageProcessor {
     private final HelloController controller;
     protected ImageView imageView;
-    protected TilePane thumbnailsTilePane;
+    protected ListView<GrayFrame> thumbnailsListView;
 
-    protected Image selectedImage;
-    private ImageView selectedThumbnailView;
-    protected Map<Image, double[]> imageViewStates = new HashMap<>();
+    protected GrayFrame selectedFrame;
+    protected Map<GrayFrame, double[]> imageViewStates = new HashMap<>();
 
     private final ImageUtils imageUtils;
 
 
-    public ImageProcessor(HelloController controller, ImageView mainImageView, TilePane thumbnailsTilePane) {
+    public ImageProcessor(HelloController controller, ImageView mainImageView, ListView<GrayFrame> thumbnailsListView) {
         this.controller = controller;
         this.imageView = mainImageView;
-        this.thumbnailsTilePane = thumbnailsTilePane;
+        this.thumbnailsListView = thumbnailsListView;
 
-        this.selectedThumbnailView = new ImageView();
-        this.imageUtils = new ImageUtils(this, selectedThumbnailView);
+        this.imageUtils = new ImageUtils(this);
+        thumbnailsListView.setCellFactory(listView -> imageUtils.createThumbnailCell());
+        thumbnailsListView.getSelectionModel().selectedItemProperty().addListener((observable, oldFrame, newFrame) -> {
+            if (newFrame != null) {
+                showFrame(newFrame);
+            }
+        });
     }
 
-    public void putImagesAndButtonsOnTabPane(Map<Tab, List<Image>> images, Tab currentTab) {
+    /**
+     * Показывает кадры вкладки в списке миниатюр. Список привязан к коллекции кадров,
+     * поэтому добавление, удаление и замена кадров отображаются без перестроения.
+     */
+    public void putImagesAndButtonsOnTabPane(Map<Tab, ObservableList<GrayFrame>> images, Tab currentTab) {
         if (currentTab != null) {
             if (images != null) {
-                thumbnailsTilePane.getChildren().clear();
-                thumbnailsTilePane.setPrefColumns(1);
-                thumbnailsTilePane.setVgap(10);
-                thumbnailsTilePane.setHgap(10);
-
-                List<Image> tabImages = images.getOrDefault(currentTab, new ArrayList<>());
-                for (Image img : tabImages) {
-                    imageUtils.createThumbnail(currentTab, img, thumbnailsTilePane, controller, imageViewStates);
+                ObservableList<GrayFrame> tabFrames = images.computeIfAbsent(currentTab, tab -> controller.createFrameList());
+                if (thumbnailsListView.getItems() != tabFrames) {
+                    thumbnailsListView.setItems(tabFrames);
                 }
             }
             // Настраиваем зум, перетаскивание и кнопку сброса
@@ -50,12 +50,27 @@ public class ImageProcessor {
         }
     }
 
+    /**
+     * Показывает кадр в главном окне с его масштабом и положением. Изображение кадра,
+     * который уже показан, повторно не строится.
+     */
+    public void showFrame(GrayFrame frame) {
+        imageUtils.handleThumbnailClick(frame, controller, imageViewStates);
+    }
+
+    /**
+     * Забывает миниатюру кадра, который больше не показывается на вкладке.
+     */
+    public void evictThumbnail(GrayFrame frame) {
+        imageUtils.evictThumbnail(frame);
+    }
+
     // Геттеры и сеттеры
     public ImageView getImageView() {
         return imageView;
     }
 
-    public Image getSelectedImage() {
-        return selectedImage;
+    public GrayFrame getSelectedFrame() {
+        return selectedFrame;
     }
 }
\ No newline at end of file
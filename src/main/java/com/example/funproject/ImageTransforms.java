@@ -0,0 +1,270 @@
+package com.example.funproject;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Преобразования кадров над массивами 16-битных интенсивностей без знака (построчно).
+ */
+class ImageTransforms {
+
+    /**
+     * Способ выборки исходного пикселя при повороте.
+     */
+    enum Interpolation {
+        NEAREST("Ближайший сосед"),
+        BILINEAR("Билинейная");
+
+        private final String title;
+
+        Interpolation(String title) {
+            this.title = title;
+        }
+
+        @Override
+        public String toString() {
+            return title;
+        }
+    }
+
+    private static final int TILE_SIZE = 64;
+    // Число плиток, которое одна задача обрабатывает без дальнейшего деления
+    private static final int TILES_PER_TASK = 4;
+
+    private ImageTransforms() {
+    }
+
+    /**
+     * Сглаживание усредняющим окном kernelSize x kernelSize.
+     * Как и прежде, у краев усредняются только пиксели, попадающие в кадр.
+     * <p>
+     * Фильтр разделимый: горизонтальные суммы строки считаются скользящим окном,
+     * а вертикальные накапливаются в суммах столбцов при сдвиге окна по строкам.
+     * Стоимость на пиксель не зависит от размера окна, дополнительная память - O(width).
+     *
+     * @param samples    Исходные интенсивности (16 бит без знака).
+     * @param width      Ширина кадра.
+     * @param height     Высота кадра.
+     * @param kernelSize Размер окна; окно охватывает kernelSize / 2 пикселей в каждую сторону.
+     * @return Новый массив сглаженных интенсивностей.
+     */
+    static short[] boxBlur(short[] samples, int width, int height, int kernelSize) {
+        int half = Math.max(0, kernelSize / 2);
+        short[] result = new short[width * height];
+        if (width == 0 || height == 0) {
+            return result;
+        }
+
+        long[] columnSums = new long[width];
+        long[] rowSums = new long[width];
+        int[] columnCounts = new int[width];
+        for (int x = 0; x < width; x++) {
+            columnCounts[x] = Math.min(x + half, width - 1) - Math.max(x - half, 0) + 1;
+        }
+
+        for (int y = 0; y <= Math.min(half, height - 1); y++) {
+            addRow(samples, width, y, half, rowSums, columnSums, 1);
+        }
+
+        for (int y = 0; y < height; y++) {
+            int rowCount = Math.min(y + half, height - 1) - Math.max(y - half, 0) + 1;
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                long count = (long) columnCounts[x] * rowCount;
+                result[offset + x] = (short) average(columnSums[x], count);
+            }
+
+            int leaving = y - half;
+            int entering = y + half + 1;
+            if (leaving >= 0) {
+                addRow(samples, width, leaving, half, rowSums, columnSums, -1);
+            }
+            if (entering < height) {
+                addRow(samples, width, entering, half, rowSums, columnSums, 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Считает горизонтальные суммы строки скользящим окном и прибавляет (sign = 1)
+     * или вычитает (sign = -1) их из сумм столбцов.
+     */
+    private static void addRow(short[] samples, int width, int row, int half, long[] rowSums, long[] columnSums, int sign) {
+        int offset = row * width;
+        long sum = 0;
+        for (int x = 0; x <= Math.min(half, width - 1); x++) {
+            sum += samples[offset + x] & 0xFFFF;
+        }
+
+        for (int x = 0; x < width; x++) {
+            rowSums[x] = sum;
+            int leaving = x - half;
+            int entering = x + half + 1;
+            if (leaving >= 0) {
+                sum -= samples[offset + leaving] & 0xFFFF;
+            }
+            if (entering < width) {
+                sum += samples[offset + entering] & 0xFFFF;
+            }
+        }
+
+        for (int x = 0; x < width; x++) {
+            columnSums[x] += sign * rowSums[x];
+        }
+    }
+
+    /**
+     * Среднее с округлением до ближайшего целого.
+     */
+    private static int average(long sum, long count) {
+        return (int) ((2 * sum + count) / (2 * count));
+    }
+
+    /**
+     * Поворот кадра вокруг центра на заданный угол. Точки, попадающие за границы
+     * исходного кадра, становятся черными.
+     * <p>
+     * Произведения (x - centerX) * cos и (x - centerX) * sin считаются один раз на столбец,
+     * так что на пиксель остаются два сложения. Порядок операций тот же, что в прямой формуле,
+     * поэтому выборка ближайшего соседа совпадает с ней точно. Плитки TILE_SIZE x TILE_SIZE
+     * обрабатываются параллельно в ForkJoinPool.
+     *
+     * @param samples       Исходные интенсивности.
+     * @param width         Ширина кадра.
+     * @param height        Высота кадра.
+     * @param angle         Угол поворота в градусах.
+     * @param interpolation Способ выборки.
+     * @return Новый массив интенсивностей того же размера.
+     */
+    static short[] rotate(short[] samples, int width, int height, double angle, Interpolation interpolation) {
+        short[] result = new short[width * height];
+        if (width == 0 || height == 0) {
+            return result;
+        }
+        double radians = Math.toRadians(angle);
+        Rotation rotation = new Rotation(samples, result, width, height, Math.cos(radians), Math.sin(radians), interpolation);
+        int tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+        int tilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+        ForkJoinPool.commonPool().invoke(new TileTask(rotation, tilesX, 0, tilesX * tilesY));
+        return result;
+    }
+
+    /**
+     * Параметры поворота, общие для всех плиток.
+     */
+    private static class Rotation {
+        private final short[] source;
+        private final short[] target;
+        private final int width;
+        private final int height;
+        private final double cos;
+        private final double sin;
+        private final double centerX;
+        private final double centerY;
+        private final double[] columnCos;
+        private final double[] columnSin;
+        private final Interpolation interpolation;
+
+        Rotation(short[] source, short[] target, int width, int height, double cos, double sin, Interpolation interpolation) {
+            this.source = source;
+            this.target = target;
+            this.width = width;
+            this.height = height;
+            this.cos = cos;
+            this.sin = sin;
+            this.centerX = width / 2.0;
+            this.centerY = height / 2.0;
+            this.interpolation = interpolation;
+
+            columnCos = new double[width];
+            columnSin = new double[width];
+            for (int x = 0; x < width; x++) {
+                columnCos[x] = (x - centerX) * cos;
+                columnSin[x] = (x - centerX) * sin;
+            }
+        }
+
+        void renderTile(int tileX, int tileY) {
+            int startX = tileX * TILE_SIZE;
+            int endX = Math.min(width, startX + TILE_SIZE);
+            int startY = tileY * TILE_SIZE;
+            int endY = Math.min(height, startY + TILE_SIZE);
+
+            for (int y = startY; y < endY; y++) {
+                double rowSin = (y - centerY) * sin;
+                double rowCos = (y - centerY) * cos;
+                int offset = y * width;
+                for (int x = startX; x < endX; x++) {
+                    double sourceX = columnCos[x] - rowSin + centerX;
+                    double sourceY = columnSin[x] + rowCos + centerY;
+                    target[offset + x] = (short) (interpolation == Interpolation.BILINEAR
+                            ? sampleBilinear(sourceX, sourceY)
+                            : sampleNearest(sourceX, sourceY));
+                }
+            }
+        }
+
+        private int sampleNearest(double sourceX, double sourceY) {
+            int x = (int) sourceX;
+            int y = (int) sourceY;
+            if (x >= 0 && x < width && y >= 0 && y < height) {
+                return source[y * width + x] & 0xFFFF;
+            }
+            return 0;
+        }
+
+        private int sampleBilinear(double sourceX, double sourceY) {
+            if (!(sourceX >= 0 && sourceX <= width - 1 && sourceY >= 0 && sourceY <= height - 1)) {
+                return 0;
+            }
+            int x0 = (int) sourceX;
+            int y0 = (int) sourceY;
+            int x1 = Math.min(x0 + 1, width - 1);
+            int y1 = Math.min(y0 + 1, height - 1);
+            double fx = sourceX - x0;
+            double fy = sourceY - y0;
+
+            int p00 = source[y0 * width + x0] & 0xFFFF;
+            int p10 = source[y0 * width + x1] & 0xFFFF;
+            int p01 = source[y1 * width + x0] & 0xFFFF;
+            int p11 = source[y1 * width + x1] & 0xFFFF;
+
+            double top = p00 * (1 - fx) + p10 * fx;
+            double bottom = p01 * (1 - fx) + p11 * fx;
+            return (int) Math.round(top * (1 - fy) + bottom * fy);
+        }
+    }
+
+    /**
+     * Задача отрисовки диапазона плиток [startTile, endTile) в порядке строк плиток.
+     */
+    private static class TileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Rotation rotation;
+        private final int tilesX;
+        private final int startTile;
+        private final int endTile;
+
+        TileTask(Rotation rotation, int tilesX, int startTile, int endTile) {
+            this.rotation = rotation;
+            this.tilesX = tilesX;
+            this.startTile = startTile;
+            this.endTile = endTile;
+        }
+
+        @Override
+        protected void compute() {
+            if (endTile - startTile <= TILES_PER_TASK) {
+                for (int tile = startTile; tile < endTile; tile++) {
+                    rotation.renderTile(tile % tilesX, tile / tilesX);
+                }
+                return;
+            }
+            int middle = (startTile + endTile) >>> 1;
+            invokeAll(new TileTask(rotation, tilesX, startTile, middle),
+                    new TileTask(rotation, tilesX, middle, endTile));
+        }
+    }
+}
@@ -2,95 +2,88 @@ package com.example.funproject;
 
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
-import javafx.scene.control.Tab;
+import javafx.scene.control.ListCell;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
-import javafx.scene.layout.TilePane;
 import javafx.scene.paint.Color;
 
 import java.util.List;
 import java.util.Map;
 
 public class ImageUtils {
+    // Столько уменьшенных изображений хранится, чтобы прокрутка не строила их заново
+    private static final int THUMBNAIL_CACHE_CAPACITY = 256;
+
     private final ImageProcessor imageProcessor;
-    private ImageView selectedThumbnailView;
+    private final ThumbnailCache thumbnailCache = new ThumbnailCache(THUMBNAIL_CACHE_CAPACITY);
+    // Кадр и его изображение, последними показанные в главном окне
+    private GrayFrame shownFrame;
+    private Image shownImage;
 
 
-    public ImageUtils(ImageProcessor imageProcessor, ImageView selectedThumbnailView) {
+    public ImageUtils(ImageProcessor imageProcessor) {
         this.imageProcessor = imageProcessor;
-        this.selectedThumbnailView = selectedThumbnailView;
     }
 
-    public void createThumbnail(Tab currentTab, Image img, TilePane thumbnailsTilePane,
-                                HelloController controller, Map<Image, double[]> imageViewStates) {
-        imageViewStates.putIfAbsent(img, new double[]{1.0, 1.0, 0.0, 0.0});
-        ImageView thumbnailImageView = new ImageView(img);
-        thumbnailImageView.setFitWidth(150);
-        thumbnailImageView.setFitHeight(150);
-        thumbnailImageView.setPreserveRatio(true);
-
-        thumbnailImageView.setOnMouseClicked(
-                event -> handleThumbnailClick(img,
-                        thumbnailImageView,
-                        controller,
-                        imageViewStates));
-
-        Button deleteButton = createDeleteButton(img, currentTab, controller);
-        HBox hbox = new HBox(10);
-        hbox.setAlignment(Pos.CENTER_LEFT);
-        hbox.getChildren().addAll(thumbnailImageView, deleteButton);
-        thumbnailsTilePane.getChildren().add(hbox);
+    /**
+     * Создает ячейку списка миниатюр. Ячейки переиспользуются ListView, поэтому
+     * узлы существуют только для видимых кадров, а изображение берется из кэша.
+     */
+    public ListCell<GrayFrame> createThumbnailCell() {
+        return new ThumbnailCell();
     }
 
-    public void handleThumbnailClick(Image img,
-                                     ImageView thumbnailImageView,
+    public void handleThumbnailClick(GrayFrame frame,
                                      HelloController controller,
-                                     Map<Image, double[]> imageViewStates) {
+                                     Map<GrayFrame, double[]> imageViewStates) {
 
-        // Получаем текущее выбранное изображение (предполагаем, что imageProcessor имеет поле selectedImage)
-        Image currentImage = imageProcessor.selectedImage;
+        // Получаем текущий выбранный кадр
+        GrayFrame currentFrame = imageProcessor.selectedFrame;
 
-        // Устанавливаем новое изображение
-        imageProcessor.selectedImage = img;
-        imageProcessor.getImageView().setImage(img);
+        // Устанавливаем новый кадр. Полное изображение строится, только если в окне
+        // показан другой кадр или изображение заменили, например окном обработки
+        imageProcessor.selectedFrame = frame;
+        ImageView imageView = imageProcessor.getImageView();
+        if (frame != shownFrame || shownImage == null || imageView.getImage() != shownImage) {
+            shownImage = frame.toImage();
+            shownFrame = frame;
+            imageView.setImage(shownImage);
+        }
 
         // Восстанавливаем состояние масштабирования и позиции для нового изображения
-        double[] state = imageViewStates.getOrDefault(img, new double[]{1.0, 1.0, 0.0, 0.0});
-        ImageView imageView = imageProcessor.getImageView();
+        double[] state = imageViewStates.getOrDefault(frame, new double[]{1.0, 1.0, 0.0, 0.0});
         imageView.setScaleX(state[0]);
         imageView.setScaleY(state[1]);
         imageView.setTranslateX(state[2]);
         imageView.setTranslateY(state[3]);
 
         // Управление видимостью линий (switchLinesVisibility принимает controller)
-        if (currentImage != null && img != null) {
-            switchLinesVisibility(currentImage, img, controller);
+        if (currentFrame != null && frame != null) {
+            switchLinesVisibility(currentFrame, frame, controller);
         }
+    }
 
-        // Очищаем эффект выделения с предыдущей миниатюры
-        clearSelectedImageEffect(this.selectedThumbnailView);
-
-        // Применяем эффект выделения к текущей миниатюре
-        applySelectedEffect(thumbnailImageView);
-        this.selectedThumbnailView = thumbnailImageView; // Сохраняем текущий
-
+    /**
+     * Убирает миниатюру кадра из кэша, например после замены кадра обработанным.
+     */
+    public void evictThumbnail(GrayFrame frame) {
+        thumbnailCache.remove(frame);
     }
 
-    public Button createDeleteButton(Image img,
-                                     Tab currentTab,
-                                     HelloController controller) {
+    public Button createDeleteButton(ListCell<GrayFrame> cell) {
         Button deleteButton = new Button("\u274C");
         deleteButton.getStyleClass().add("button-delete");
         deleteButton.setOnAction(event -> {
-            List<Image> imageList = controller.xRayImages.get(currentTab);
-            if (imageList != null) {
-                imageList.remove(img);
-                this.imageProcessor.getImageView().setImage(null);
-                controller.xRayImages.put(currentTab, imageList);
+            GrayFrame frame = cell.getItem();
+            if (frame == null) return;
+            cell.getListView().getItems().remove(frame);
+            evictThumbnail(frame);
+            if (imageProcessor.selectedFrame == frame) {
+                imageProcessor.selectedFrame = null;
+                imageProcessor.getImageView().setImage(null);
             }
-            imageProcessor.putImagesAndButtonsOnTabPane(controller.xRayImages, currentTab);
         });
         deleteButton.setMinSize(Button.USE_PREF_SIZE, Button.USE_PREF_SIZE);
         deleteButton.setMaxSize(20, 20);
@@ -111,8 +104,8 @@ public class ImageUtils {
         }
     }
 
-    public void switchLinesVisibility(Image oldImage,
-                                      Image newImage,
+    public void switchLinesVisibility(GrayFrame oldImage,
+                                      GrayFrame newImage,
                                       HelloController controller) {
         if (oldImage != null) {
             List<LineInfo> oldLines = controller.imageLines.get(oldImage);
@@ -128,7 +121,7 @@ public class ImageUtils {
         }
     }
 
-    public void setupZoom(ImageView imageView, Map<Image, double[]> imageViewStates) {
+    public void setupZoom(ImageView imageView, Map<GrayFrame, double[]> imageViewStates) {
         imageView.setOnScroll(event -> {
             if (event.isControlDown() && imageView.getImage() != null) {
                 double zoomFactor = 1.05;
@@ -138,8 +131,8 @@ public class ImageUtils {
                 }
                 imageView.setScaleX(imageView.getScaleX() * zoomFactor);
                 imageView.setScaleY(imageView.getScaleY() * zoomFactor);
-                if (imageProcessor.getSelectedImage() != null) {
-                    imageViewStates.put(imageProcessor.getSelectedImage(), new double[]{
+                if (imageProcessor.getSelectedFrame() != null) {
+                    imageViewStates.put(imageProcessor.getSelectedFrame(), new double[]{
                             imageView.getScaleX(),
                             imageView.getScaleY(),
                             imageView.getTranslateX(),
@@ -151,7 +144,7 @@ public class ImageUtils {
         });
     }
 
-    public void setupImageDrag(ImageView imageView, Map<Image, double[]> imageViewStates) {
+    public void setupImageDrag(ImageView imageView, Map<GrayFrame, double[]> imageViewStates) {
         final double[] xOffset = new double[1];
         final double[] yOffset = new double[1];
         imageView.setOnMousePressed(event -> {
@@ -164,8 +157,8 @@ public class ImageUtils {
             if (event.isControlDown()) {
                 imageView.setTranslateX(event.getSceneX() + xOffset[0]);
                 imageView.setTranslateY(event.getSceneY() + yOffset[0]);
-                if (imageProcessor.getSelectedImage() != null) {
-                    imageViewStates.put(imageProcessor.getSelectedImage(), new double[]{
+                if (imageProcessor.getSelectedFrame() != null) {
+                    imageViewStates.put(imageProcessor.getSelectedFrame(), new double[]{
                             imageView.getScaleX(),
                             imageView.getScaleY(),
                             imageView.getTranslateX(),
@@ -175,4 +168,51 @@ public class ImageUtils {
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Ячейка миниатюры: уменьшенное изображение и кнопка удаления.
+     * Выбранная ячейка выделяется тенью.
+     */
+    private class ThumbnailCell extends ListCell<GrayFrame> {
+        private final ImageView thumbnailImageView = new ImageView();
+        private final HBox hbox;
+
+        ThumbnailCell() {
+            thumbnailImageView.setFitWidth(ThumbnailCache.THUMBNAIL_SIZE);
+            thumbnailImageView.setFitHeight(ThumbnailCache.THUMBNAIL_SIZE);
+            thumbnailImageView.setPreserveRatio(true);
+
+            hbox = new HBox(10);
+            hbox.setAlignment(Pos.CENTER_LEFT);
+            hbox.getChildren().addAll(thumbnailImageView, createDeleteButton(this));
+
+            // Щелчок показывает кадр, даже если строка уже выбрана
+            thumbnailImageView.setOnMouseClicked(event -> {
+                GrayFrame frame = getItem();
+                if (frame != null) {
+                    imageProcessor.showFrame(frame);
+                }
+            });
+
+            selectedProperty().addListener((observable, wasSelected, isSelected) -> {
+                if (isSelected) {
+                    applySelectedEffect(thumbnailImageView);
+                } else {
+                    clearSelectedImageEffect(thumbnailImageView);
+                }
+            });
+        }
+
+        @Override
+        protected void updateItem(GrayFrame frame, boolean empty) {
+            super.updateItem(frame, empty);
+            if (empty || frame == null) {
+                thumbnailImageView.setImage(null);
+                setGraphic(null);
+            } else {
+                thumbnailImageView.setImage(thumbnailCache.get(frame));
+                setGraphic(hbox);
+            }
+        }
+    }
+}
@@ -10,11 +10,12 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class InterpolateWindow extends Stage {
 
+    private static final String METHOD_LINEAR = "Линейная";
+    private static final String METHOD_SPLINE = "Кубический сплайн";
+    private static final String METHOD_AKIMA = "Сплайн Акимы";
+
     public InterpolateWindow(HelloController controller, LineChart<Number, Number> chart) {
         // Создаем новое окно
         Stage interpolateStage = new Stage();
@@ -22,6 +23,10 @@ public class InterpolateWindow extends Stage {
         interpolateStage.initModality(Modality.APPLICATION_MODAL);
 
         // Создаем элементы управления
+        Label methodLabel = new Label("Метод:");
+        ComboBox<String> methodComboBox = new ComboBox<>();
+        methodComboBox.getItems().addAll(METHOD_LINEAR, METHOD_SPLINE, METHOD_AKIMA);
+        methodComboBox.setValue(METHOD_LINEAR);
         Label energyStepLabel = new Label("Шаг энергии:");
         TextField energyStepField = new TextField();
         Button interpolateButton = new Button("Интерполировать");
@@ -41,7 +46,7 @@ public class InterpolateWindow extends Stage {
         // Размещаем элементы в layout (VBox)
         VBox layout = new VBox(10);
         layout.setPadding(new Insets(20));
-        layout.getChildren().addAll(energyStepLabel, energyStepField, interpolateButton);
+        layout.getChildren().addAll(methodLabel, methodComboBox, energyStepLabel, energyStepField, interpolateButton);
 
         // Создаем сцену и устанавливаем ее в окно
         this.setScene(new Scene(layout));
@@ -76,72 +81,42 @@ public class InterpolateWindow extends Stage {
 
                 // Получить список всех серий
                 ObservableList<XYChart.Series<Number, Number>> allSeries = chart.getData();
-                XYChart.Series<Number, Number> lastSeries = allSeries.get(allSeries.size() - 1);
-
-                // 1. Определение диапазона X и направления
-                double minX, maxX;
-                if (lastSeries.getData().get(0).getXValue().doubleValue() <
-                        lastSeries.getData().get(lastSeries.getData().size() - 1).getXValue().doubleValue()) {
-
-                    minX = lastSeries.getData().stream()
-                            .mapToDouble(data -> data.getXValue().doubleValue())
-                            .min()
-                            .orElse(0);
-                    maxX = lastSeries.getData().stream()
-                            .mapToDouble(data -> data.getXValue().doubleValue())
-                            .max()
-                            .orElse(0);
-                } else {
-                    minX = lastSeries.getData().stream()
-                            .mapToDouble(data -> data.getXValue().doubleValue())
-                            .max()
-                            .orElse(0);
-                    maxX = lastSeries.getData().stream()
-                            .mapToDouble(data -> data.getXValue().doubleValue())
-                            .min()
-                            .orElse(0);
+                Spectrum spectrum = Spectrum.fromSeries(allSeries.get(allSeries.size() - 1));
+                if (spectrum.size() < 2) {
+                    Alert alert = new Alert(Alert.AlertType.ERROR);
+                    alert.setTitle("Ошибка");
+                    alert.setHeaderText("Недостаточно точек");
+                    alert.setContentText("Для интерполяции нужны хотя бы две точки спектра.");
+                    alert.showAndWait();
+                    return;
                 }
 
-                // 2. Генерация новых X-значений в диапазоне minX - maxX с учетом направления
-                List<Double> newXValues = new ArrayList<>();
-                // Определение направления
-                boolean ascending = lastSeries.getData().get(1).getXValue().doubleValue() > lastSeries.getData().get(0).getXValue().doubleValue();
-
-                // Генерация новых X-значений с учетом направления
-                for (double x = minX; (ascending ? x <= maxX : x >= maxX); x += (ascending ? energyStep : -energyStep)) {
-                    newXValues.add(x);
+                // 1. Определение диапазона X и направления (по возрастанию или по убыванию)
+                double[] xs = spectrum.x();
+                double direction = SpectrumResampler.direction(xs);
+                double startX = xs[0];
+                double endX = xs[0];
+                for (double x : xs) {
+                    startX = direction > 0 ? Math.min(startX, x) : Math.max(startX, x);
+                    endX = direction > 0 ? Math.max(endX, x) : Math.min(endX, x);
                 }
 
-                // Создать новую серию для интерполированных данных
-                XYChart.Series<Number, Number> interpolatedSeries = new XYChart.Series<>();
-                for (int i = 0; i < newXValues.size(); i++) {
-                    double x = newXValues.get(i);
-                    // Найти две ближайшие точки из последней серии
-                    int index1 = findClosestIndex(lastSeries.getData(), x);
-                    int index2 = index1 + 1;
-
-                    // Проверка границ
-                    if (index2 >= lastSeries.getData().size()) {
-                        break; // Недостаточно точек для интерполяции
-                    }
-
-                    // Получить значения X и Y для трёх точек
-                    double x1 = lastSeries.getData().get(index1).getXValue().doubleValue();
-                    double y1 = lastSeries.getData().get(index1).getYValue().doubleValue();
-                    double x2 = lastSeries.getData().get(index2).getXValue().doubleValue();
-                    double y2 = lastSeries.getData().get(index2).getYValue().doubleValue();
-
-                    // Интерполяция по двум точкам (например, линейная)
-                    double y = interpolate(x, x1, y1, x2, y2);
-
-                    // Добавить интерполированную точку в новую серию
-                    interpolatedSeries.getData().add(new XYChart.Data<>(x, y));
+                // 2. Генерация новых X-значений от startX до endX в направлении спектра
+                double step = direction * Math.abs(energyStep);
+                int count = (int) Math.floor((endX - startX) / step + 1e-9) + 1;
+                double[] newX = new double[count];
+                for (int i = 0; i < count; i++) {
+                    newX[i] = startX + i * step;
                 }
 
+                // 3. Интерполяция в новых точках выбранным методом
+                Spectrum interpolated = switch (methodComboBox.getValue()) {
+                    case METHOD_SPLINE -> SpectrumResampler.spline(spectrum, newX);
+                    case METHOD_AKIMA -> SpectrumResampler.akima(spectrum, newX);
+                    default -> SpectrumResampler.linear(spectrum, newX);
+                };
                 chart.getData().clear();
-                chart.getData().add(interpolatedSeries);
-                System.out.println(interpolatedSeries.getData());
-                interpolatedSeries.setName("Intensities");
+                chart.getData().add(interpolated.toSeries("Intensities"));
             } catch (NumberFormatException e) {
                 // Обработка ошибки ввода
                 Alert alert = new Alert(Alert.AlertType.ERROR);
@@ -149,27 +124,14 @@ public class InterpolateWindow extends Stage {
                 alert.setHeaderText("Неверный формат ввода");
                 alert.setContentText("Пожалуйста, введите числовое значение для шага энергии.");
                 alert.showAndWait();
+            } catch (IllegalArgumentException e) {
+                // Например, слишком мало точек для сплайна или повторяющиеся координаты
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Ошибка");
+                alert.setHeaderText("Интерполяция невозможна");
+                alert.setContentText(e.getMessage());
+                alert.showAndWait();
             }
         });
     }
-
-    private static int findClosestIndex(ObservableList<XYChart.Data<Number, Number>> data, double targetX) {
-        int closestIndex = -1;
-        double closestDistance = Double.MAX_VALUE;
-        for (int i = 0; i < data.size(); i++) {
-            double currentX = data.get(i).getXValue().doubleValue();
-            double distance = Math.abs(currentX - targetX);
-            if (distance < closestDistance) {
-                closestDistance = distance;
-                closestIndex = i;
-            }
-        }
-        return closestIndex;
-    }
-
-    private static double interpolate(double x, double x1, double y1, double x2, double y2) {
-        // Интерполяция по двум точкам (линейная интерполяция)
-        double t = (x - x1) / (x2 - x1);
-        return y1 * (1 - t) + y2 * t;
-    }
 }
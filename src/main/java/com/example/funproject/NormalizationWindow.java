@@ -61,8 +61,9 @@ public class NormalizationWindow extends Stage {
                 double normalizationValue = Double.parseDouble(valueField.getText());
                 // Найти максимальное значение Y в данных графика
                 double maxY = chart.getData().stream()
-                        .flatMap(series -> series.getData().stream())
-                        .mapToDouble(data -> data.getYValue().doubleValue())
+                        .map(Spectrum::fromSeries)
+                        .filter(spectrum -> !spectrum.isEmpty())
+                        .mapToDouble(spectrum -> spectrum.maxY(1.0))
                         .max().orElse(1.0); // 1.0 - значение по умолчанию, если данных нет
                 // Коэффициент нормировки
                 double normalizationFactor = normalizationValue / maxY;
@@ -71,19 +72,12 @@ public class NormalizationWindow extends Stage {
                 ObservableList<XYChart.Series<Number, Number>> allSeries = chart.getData();
                 XYChart.Series<Number, Number> lastSeries = allSeries.get(allSeries.size() - 1);
 
-                // Создать новую серию для нормированных данных
-                XYChart.Series<Number, Number> normalizedSeries = new XYChart.Series<>();
+                // Применить коэффициент нормировки к данным исходной серии
+                Spectrum normalized = Spectrum.fromSeries(lastSeries).scaleY(normalizationFactor);
 
-                // Скопировать данные из исходной серии и применить коэффициент нормировки
-                for (XYChart.Data<Number, Number> data : lastSeries.getData()) {
-                    Number xValue = data.getXValue();
-                    Number yValue = data.getYValue().doubleValue() * normalizationFactor;
-                    normalizedSeries.getData().add(new XYChart.Data<>(xValue, yValue));
-                }
-                normalizedSeries.setName("Intensities");
                 // Добавить новую серию на график (и опционально удалить старую)
                 chart.getData().clear();
-                chart.getData().add(normalizedSeries);
+                chart.getData().add(normalized.toSeries("Intensities"));
 
                 // Обновление данных в таблице
                 for (SpectralDataTable.SpectralData data : tableView.getItems()) {
@@ -0,0 +1,135 @@
+package com.example.funproject;
+
+import java.util.Arrays;
+
+/**
+ * Поиск локальных пиков за линейное время. Пик - точка выше порога, строго большая всех точек
+ * в пределах distance с каждой стороны. Максимумы окон считаются скользящим окном с монотонной
+ * очередью, поэтому время не зависит от distance. Найденные пики можно отфильтровать
+ * по выступанию (prominence) и ширине на половине выступания, как в scipy.signal.find_peaks.
+ */
+class PeakDetector {
+
+    private PeakDetector() {
+    }
+
+    /**
+     * @param y             Интенсивности спектра.
+     * @param threshold     Наименьшая интенсивность пика.
+     * @param distance      Число точек с каждой стороны, которые должны быть ниже пика.
+     * @param minProminence Наименьшее выступание пика над более низким из двух оснований; 0 - без фильтра.
+     * @param minWidth      Наименьшая ширина на половине выступания, в точках; 0 - без фильтра.
+     * @return Индексы пиков по возрастанию.
+     */
+    static int[] findPeaks(double[] y, double threshold, int distance, double minProminence, double minWidth) {
+        int n = y.length;
+        int d = Math.max(distance, 0);
+        if (n < 2 * d + 1) {
+            return new int[0];
+        }
+
+        // windowMax[j] - максимум y[j .. j + d - 1]; левое окно пика i начинается в i - d, правое - в i + 1
+        double[] windowMax = d > 0 ? slidingMax(y, d) : null;
+        int[] candidates = new int[n];
+        int count = 0;
+        for (int i = d; i < n - d; i++) {
+            if (y[i] < threshold) continue;
+            if (d > 0 && (y[i] <= windowMax[i - d] || y[i] <= windowMax[i + 1])) continue;
+            candidates[count++] = i;
+        }
+        if (count == 0 || (minProminence <= 0 && minWidth <= 0)) {
+            return Arrays.copyOf(candidates, count);
+        }
+
+        double[] leftBase = leftBases(y);
+        double[] rightBase = rightBases(y);
+        int kept = 0;
+        for (int c = 0; c < count; c++) {
+            int i = candidates[c];
+            double prominence = y[i] - Math.max(leftBase[i], rightBase[i]);
+            if (prominence < minProminence) continue;
+            if (minWidth > 0 && width(y, i, y[i] - prominence / 2) < minWidth) continue;
+            candidates[kept++] = i;
+        }
+        return Arrays.copyOf(candidates, kept);
+    }
+
+    /**
+     * Максимумы всех окон длины window: O(n) с очередью индексов по убыванию значений.
+     */
+    static double[] slidingMax(double[] y, int window) {
+        int n = y.length;
+        double[] result = new double[n - window + 1];
+        // Очередь индексов: элементы queue[head .. tail - 1], значения y по убыванию
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < n; i++) {
+            while (tail > head && y[queue[tail - 1]] <= y[i]) {
+                tail--;
+            }
+            queue[tail++] = i;
+            if (queue[head] <= i - window) {
+                head++;
+            }
+            if (i >= window - 1) {
+                result[i - window + 1] = y[queue[head]];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Для каждой точки - минимум y между ней и ближайшей более высокой точкой слева
+     * (или началом спектра). Стек хранит точки по убыванию высоты вместе с минимумом
+     * на участке до предыдущей точки стека, поэтому весь расчет занимает O(n).
+     */
+    private static double[] leftBases(double[] y) {
+        int n = y.length;
+        double[] base = new double[n];
+        int[] stack = new int[n];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            double min = y[i];
+            while (size > 0 && y[stack[size - 1]] <= y[i]) {
+                min = Math.min(min, base[stack[--size]]);
+            }
+            base[i] = min;
+            stack[size++] = i;
+        }
+        return base;
+    }
+
+    private static double[] rightBases(double[] y) {
+        int n = y.length;
+        double[] reversed = new double[n];
+        for (int i = 0; i < n; i++) {
+            reversed[i] = y[n - 1 - i];
+        }
+        double[] reversedBase = leftBases(reversed);
+        double[] base = new double[n];
+        for (int i = 0; i < n; i++) {
+            base[i] = reversedBase[n - 1 - i];
+        }
+        return base;
+    }
+
+    /**
+     * Ширина пика на уровне height в точках, с линейной интерполяцией пересечений.
+     */
+    private static double width(double[] y, int peak, double height) {
+        int left = peak;
+        while (left > 0 && y[left - 1] > height) {
+            left--;
+        }
+        double leftPosition = left > 0 ? left - (y[left] - height) / (y[left] - y[left - 1]) : 0;
+
+        int right = peak;
+        while (right < y.length - 1 && y[right + 1] > height) {
+            right++;
+        }
+        double rightPosition = right < y.length - 1 ? right + (y[right] - height) / (y[right] - y[right + 1]) : y.length - 1;
+
+        return rightPosition - leftPosition;
+    }
+}
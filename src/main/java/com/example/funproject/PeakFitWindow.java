@@ -0,0 +1,171 @@
+package com.example.funproject;
+
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Priority;
+import javafx.stage.Stage;
+import org.apache.commons.math3.exception.ConvergenceException;
+import org.apache.commons.math3.exception.TooManyEvaluationsException;
+import org.apache.commons.math3.exception.TooManyIterationsException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Окно аппроксимации пиков. Начальные положения берутся из отмеченных на графике пиков,
+ * а если пики не отмечены - из максимума спектра. Подбор выполняется в фоновом потоке;
+ * подобранные компоненты и их сумма рисуются на графике пунктиром.
+ */
+public class PeakFitWindow extends Stage {
+
+    private static final String COMPONENT_SERIES_PREFIX = "Компонента ";
+    private static final String FIT_SERIES_NAME = "Сумма компонент";
+
+    private final LineChart<Number, Number> chart;
+    private final ComboBox<PeakFitter.Profile> profileComboBox;
+    private final Button fitButton;
+    private final Label statusLabel;
+    private final TableView<PeakFitter.Peak> resultTable;
+
+    public PeakFitWindow(HelloController controller, LineChart<Number, Number> chart) {
+        this.chart = chart;
+
+        // Инициализация элементов управления
+        profileComboBox = new ComboBox<>();
+        profileComboBox.getItems().addAll(PeakFitter.Profile.values());
+        profileComboBox.setValue(PeakFitter.Profile.GAUSSIAN);
+        fitButton = new Button("Аппроксимировать");
+        statusLabel = new Label();
+        resultTable = createResultTable();
+
+        // Создание GridPane для размещения элементов
+        GridPane gridPane = new GridPane();
+        gridPane.setHgap(10);
+        gridPane.setVgap(10);
+        gridPane.setPadding(new Insets(20));
+
+        // Добавление элементов на GridPane
+        gridPane.add(new Label("Форма пика:"), 0, 0);
+        gridPane.add(profileComboBox, 1, 0);
+        gridPane.add(fitButton, 1, 1);
+        gridPane.add(statusLabel, 0, 2, 2, 1);
+        gridPane.add(resultTable, 0, 3, 2, 1);
+        GridPane.setVgrow(resultTable, Priority.ALWAYS);
+
+        // Обработка нажатия на кнопку аппроксимации
+        fitButton.setOnAction(event -> startFit());
+
+        // Настройка окна
+        this.setTitle("Аппроксимация пиков");
+        this.setScene(new Scene(gridPane, 600, 400));
+        this.setAlwaysOnTop(true);
+    }
+
+    /**
+     * Запускает подбор в фоновом потоке; кнопка недоступна до его окончания.
+     */
+    private void startFit() {
+        XYChart.Series<Number, Number> series = ChartCropper.findSpectrumSeries(chart);
+        if (series == null || series.getData().isEmpty()) {
+            statusLabel.setText("На графике нет спектра");
+            return;
+        }
+        Spectrum spectrum = Spectrum.fromSeries(series);
+        double[] peakPositions = ChartCropper.findPeakPositions(chart);
+        if (peakPositions.length == 0) {
+            peakPositions = new double[]{spectrum.x(maxIndex(spectrum.y()))};
+        }
+        double[] seeds = peakPositions;
+        PeakFitter.Profile profile = profileComboBox.getValue();
+
+        Task<PeakFitter.Result> task = new Task<>() {
+            @Override
+            protected PeakFitter.Result call() {
+                return PeakFitter.fit(spectrum, seeds, profile);
+            }
+        };
+        task.setOnSucceeded(event -> {
+            fitButton.setDisable(false);
+            showResult(task.getValue(), spectrum.x());
+        });
+        task.setOnFailed(event -> {
+            fitButton.setDisable(false);
+            Throwable exception = task.getException();
+            if (exception instanceof TooManyIterationsException
+                    || exception instanceof TooManyEvaluationsException
+                    || exception instanceof ConvergenceException) {
+                statusLabel.setText("Подбор не сошелся. Уточните положения пиков или выберите другую форму пика");
+            } else {
+                statusLabel.setText("Аппроксимация не удалась: " + exception.getMessage());
+                exception.printStackTrace();
+            }
+        });
+
+        fitButton.setDisable(true);
+        statusLabel.setText("Аппроксимация " + seeds.length + " пиков...");
+        Thread thread = new Thread(task, "peak-fit");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Показывает параметры пиков в таблице и заменяет на графике кривые предыдущей аппроксимации.
+     * Кривые добавляются в начало списка серий, чтобы спектр оставался последней серией
+     * для остальных окон обработки.
+     */
+    private void showResult(PeakFitter.Result result, double[] x) {
+        statusLabel.setText("Фон: " + result.background() + ", СКО: " + result.rms() + ", итераций: " + result.iterations());
+        resultTable.getItems().setAll(result.peaks());
+
+        chart.getData().removeIf(series -> series.getName() != null
+                && (series.getName().startsWith(COMPONENT_SERIES_PREFIX) || FIT_SERIES_NAME.equals(series.getName())));
+
+        List<XYChart.Series<Number, Number>> curves = new ArrayList<>();
+        for (int i = 0; i < result.peaks().size(); i++) {
+            curves.add(result.component(i, x).toSeries(COMPONENT_SERIES_PREFIX + (i + 1)));
+        }
+        curves.add(result.total(x).toSeries(FIT_SERIES_NAME));
+        chart.getData().addAll(0, curves);
+
+        for (XYChart.Series<Number, Number> curve : curves) {
+            curve.getNode().lookup(".chart-series-line").setStyle("-fx-stroke-width: 1; -fx-stroke-dash-array: 2 2;");
+        }
+    }
+
+    private TableView<PeakFitter.Peak> createResultTable() {
+        TableView<PeakFitter.Peak> table = new TableView<>();
+        table.getColumns().add(createColumn("Центр", PeakFitter.Peak::center));
+        table.getColumns().add(createColumn("Ширина", PeakFitter.Peak::fwhm));
+        table.getColumns().add(createColumn("Амплитуда", PeakFitter.Peak::amplitude));
+        table.getColumns().add(createColumn("Доля Лоренца", PeakFitter.Peak::eta));
+        table.getColumns().add(createColumn("Площадь", PeakFitter.Peak::area));
+        return table;
+    }
+
+    private TableColumn<PeakFitter.Peak, Number> createColumn(String title, ToDoubleFunction<PeakFitter.Peak> value) {
+        TableColumn<PeakFitter.Peak, Number> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyDoubleWrapper(value.applyAsDouble(cell.getValue())));
+        return column;
+    }
+
+    private static int maxIndex(double[] y) {
+        int maxIndex = 0;
+        for (int i = 1; i < y.length; i++) {
+            if (y[i] > y[maxIndex]) {
+                maxIndex = i;
+            }
+        }
+        return maxIndex;
+    }
+}
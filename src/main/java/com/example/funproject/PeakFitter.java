@@ -0,0 +1,254 @@
+package com.example.funproject;
+
+import org.apache.commons.math3.fitting.leastsquares.LeastSquaresBuilder;
+import org.apache.commons.math3.fitting.leastsquares.LeastSquaresOptimizer;
+import org.apache.commons.math3.fitting.leastsquares.LeastSquaresProblem;
+import org.apache.commons.math3.fitting.leastsquares.LevenbergMarquardtOptimizer;
+import org.apache.commons.math3.fitting.leastsquares.MultivariateJacobianFunction;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.util.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Аппроксимация спектра суммой пиков одной формы и постоянного фона методом
+ * Левенберга-Марквардта. Производные модели по параметрам считаются аналитически,
+ * поэтому одна итерация стоит одного прохода по точкам спектра.
+ * <p>
+ * Параметры пика: амплитуда, центр и полная ширина на половине высоты; у псевдо-Фойгта
+ * еще доля лоренциана, которая подбирается через логистическую функцию и остается в [0, 1].
+ */
+class PeakFitter {
+
+    private static final double GAUSS_FACTOR = 4 * Math.log(2);
+    private static final int MAX_ITERATIONS = 1000;
+    // Отвергнутые шаги Левенберга-Марквардта тоже вычисляют модель, поэтому вычислений больше, чем итераций
+    private static final int MAX_EVALUATIONS = 10 * MAX_ITERATIONS;
+
+    /**
+     * Форма пика.
+     */
+    enum Profile {
+        GAUSSIAN("Гаусс"),
+        LORENTZIAN("Лоренц"),
+        PSEUDO_VOIGT("Псевдо-Фойгт");
+
+        private final String title;
+
+        Profile(String title) {
+            this.title = title;
+        }
+
+        int parametersPerPeak() {
+            return this == PSEUDO_VOIGT ? 4 : 3;
+        }
+
+        @Override
+        public String toString() {
+            return title;
+        }
+    }
+
+    /**
+     * Параметры одного подобранного пика.
+     *
+     * @param center    Центр пика.
+     * @param fwhm      Полная ширина на половине высоты.
+     * @param amplitude Высота пика над фоном.
+     * @param eta       Доля лоренциана: 0 для Гаусса, 1 для Лоренца.
+     * @param area      Площадь пика.
+     */
+    record Peak(double center, double fwhm, double amplitude, double eta, double area) {
+    }
+
+    /**
+     * Результат аппроксимации.
+     *
+     * @param profile    Форма пиков.
+     * @param peaks      Пики по порядку начальных положений.
+     * @param background Постоянный фон.
+     * @param rms        Среднеквадратичное отклонение модели от спектра.
+     * @param iterations Число итераций.
+     */
+    record Result(Profile profile, List<Peak> peaks, double background, double rms, int iterations) {
+
+        /**
+         * Кривая одного пика на сетке x, вместе с фоном.
+         */
+        Spectrum component(int index, double[] x) {
+            Peak peak = peaks.get(index);
+            double[] y = new double[x.length];
+            for (int i = 0; i < x.length; i++) {
+                y[i] = background + peak.amplitude() * shape(profile, (x[i] - peak.center()) / peak.fwhm(), peak.eta());
+            }
+            return new Spectrum(x, y);
+        }
+
+        /**
+         * Сумма всех пиков и фона на сетке x.
+         */
+        Spectrum total(double[] x) {
+            double[] y = new double[x.length];
+            for (int i = 0; i < x.length; i++) {
+                double value = background;
+                for (Peak peak : peaks) {
+                    value += peak.amplitude() * shape(profile, (x[i] - peak.center()) / peak.fwhm(), peak.eta());
+                }
+                y[i] = value;
+            }
+            return new Spectrum(x, y);
+        }
+    }
+
+    private PeakFitter() {
+    }
+
+    /**
+     * Подбирает пики с начальными центрами в peakPositions. Начальные амплитуды и ширины
+     * оцениваются по спектру около каждого центра.
+     *
+     * @throws IllegalArgumentException Если пиков нет или точек меньше, чем параметров.
+     * @throws org.apache.commons.math3.exception.TooManyIterationsException  Если подбор не сошелся за MAX_ITERATIONS итераций.
+     * @throws org.apache.commons.math3.exception.TooManyEvaluationsException Если подбор не сошелся за MAX_EVALUATIONS вычислений.
+     * @throws org.apache.commons.math3.exception.ConvergenceException        Если подбор не может продолжаться.
+     */
+    static Result fit(Spectrum spectrum, double[] peakPositions, Profile profile) {
+        double[] x = spectrum.x();
+        double[] y = spectrum.y();
+        int perPeak = profile.parametersPerPeak();
+        int parameters = peakPositions.length * perPeak + 1;
+        if (peakPositions.length == 0) {
+            throw new IllegalArgumentException("Не заданы начальные положения пиков");
+        }
+        if (x.length < parameters) {
+            throw new IllegalArgumentException("Недостаточно точек для аппроксимации: " + x.length + " < " + parameters);
+        }
+
+        double background = y[0];
+        for (double value : y) {
+            background = Math.min(background, value);
+        }
+        double[] start = new double[parameters];
+        for (int k = 0; k < peakPositions.length; k++) {
+            int index = spectrum.closestIndex(peakPositions[k]);
+            start[k * perPeak] = Math.max(y[index] - background, Double.MIN_NORMAL);
+            start[k * perPeak + 1] = x[index];
+            start[k * perPeak + 2] = estimateWidth(x, y, index, background + start[k * perPeak] / 2);
+            if (profile == Profile.PSEUDO_VOIGT) {
+                start[k * perPeak + 3] = 0; // доля лоренциана 0.5
+            }
+        }
+        start[parameters - 1] = background;
+
+        LeastSquaresProblem problem = new LeastSquaresBuilder()
+                .model(model(x, profile, peakPositions.length))
+                .target(y)
+                .start(start)
+                .maxIterations(MAX_ITERATIONS)
+                .maxEvaluations(MAX_EVALUATIONS)
+                .lazyEvaluation(false)
+                .build();
+        LeastSquaresOptimizer.Optimum optimum = new LevenbergMarquardtOptimizer().optimize(problem);
+
+        double[] p = optimum.getPoint().toArray();
+        List<Peak> peaks = new ArrayList<>(peakPositions.length);
+        for (int k = 0; k < peakPositions.length; k++) {
+            double amplitude = p[k * perPeak];
+            double fwhm = Math.abs(p[k * perPeak + 2]);
+            double eta = profile == Profile.PSEUDO_VOIGT ? logistic(p[k * perPeak + 3]) : profile == Profile.LORENTZIAN ? 1 : 0;
+            double area = amplitude * fwhm * (eta * Math.PI / 2 + (1 - eta) * Math.sqrt(Math.PI / GAUSS_FACTOR));
+            peaks.add(new Peak(p[k * perPeak + 1], fwhm, amplitude, eta, area));
+        }
+        return new Result(profile, peaks, p[parameters - 1], optimum.getRMS(), optimum.getIterations());
+    }
+
+    /**
+     * Значения модели и матрица Якоби в каждой точке спектра.
+     */
+    private static MultivariateJacobianFunction model(double[] x, Profile profile, int peakCount) {
+        int perPeak = profile.parametersPerPeak();
+        int parameters = peakCount * perPeak + 1;
+        return point -> {
+            double[] p = point.toArray();
+            double[] values = new double[x.length];
+            double[][] jacobian = new double[x.length][parameters];
+            for (int i = 0; i < x.length; i++) {
+                double value = p[parameters - 1];
+                jacobian[i][parameters - 1] = 1;
+                for (int k = 0; k < peakCount; k++) {
+                    int offset = k * perPeak;
+                    double amplitude = p[offset];
+                    double width = p[offset + 2];
+                    double u = (x[i] - p[offset + 1]) / width;
+
+                    double gauss = Math.exp(-GAUSS_FACTOR * u * u);
+                    double gaussDerivative = -2 * GAUSS_FACTOR * u * gauss;
+                    double lorentz = 1 / (1 + 4 * u * u);
+                    double lorentzDerivative = -8 * u * lorentz * lorentz;
+
+                    double shape;
+                    double derivative;
+                    switch (profile) {
+                        case GAUSSIAN -> {
+                            shape = gauss;
+                            derivative = gaussDerivative;
+                        }
+                        case LORENTZIAN -> {
+                            shape = lorentz;
+                            derivative = lorentzDerivative;
+                        }
+                        default -> {
+                            double eta = logistic(p[offset + 3]);
+                            shape = eta * lorentz + (1 - eta) * gauss;
+                            derivative = eta * lorentzDerivative + (1 - eta) * gaussDerivative;
+                            jacobian[i][offset + 3] = amplitude * (lorentz - gauss) * eta * (1 - eta);
+                        }
+                    }
+
+                    value += amplitude * shape;
+                    jacobian[i][offset] = shape;
+                    jacobian[i][offset + 1] = -amplitude * derivative / width;
+                    jacobian[i][offset + 2] = -amplitude * derivative * u / width;
+                }
+                values[i] = value;
+            }
+            return new Pair<>(new ArrayRealVector(values, false), new Array2DRowRealMatrix(jacobian, false));
+        };
+    }
+
+    /**
+     * Форма пика единичной высоты от u = (x - центр) / ширина.
+     */
+    private static double shape(Profile profile, double u, double eta) {
+        double gauss = Math.exp(-GAUSS_FACTOR * u * u);
+        double lorentz = 1 / (1 + 4 * u * u);
+        return switch (profile) {
+            case GAUSSIAN -> gauss;
+            case LORENTZIAN -> lorentz;
+            case PSEUDO_VOIGT -> eta * lorentz + (1 - eta) * gauss;
+        };
+    }
+
+    private static double logistic(double value) {
+        return 1 / (1 + Math.exp(-value));
+    }
+
+    /**
+     * Начальная оценка ширины: расстояние между ближайшими к пику точками не выше level,
+     * но не меньше двух шагов сетки.
+     */
+    private static double estimateWidth(double[] x, double[] y, int peak, double level) {
+        int left = peak;
+        while (left > 0 && y[left] > level) {
+            left--;
+        }
+        int right = peak;
+        while (right < y.length - 1 && y[right] > level) {
+            right++;
+        }
+        double step = Math.abs(x[Math.min(peak + 1, x.length - 1)] - x[Math.max(peak - 1, 0)]);
+        return Math.max(Math.abs(x[right] - x[left]), step);
+    }
+}
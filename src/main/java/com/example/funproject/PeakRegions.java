@@ -0,0 +1,79 @@
+package com.example.funproject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Разбиение спектра на области отдельных линий. Границы проводятся по минимуму интенсивности
+ * между соседними пиками, так что каждая область содержит одну линию вместе с ее крыльями.
+ * Характеристики областей рассчитываются параллельно в общем ForkJoinPool.
+ */
+class PeakRegions {
+
+    private PeakRegions() {
+    }
+
+    /**
+     * Характеристики каждой области в порядке расположения пиков в спектре.
+     *
+     * @param peakPositions Координаты x найденных пиков, в любом порядке.
+     */
+    static List<SpectrumStatistics> statistics(Spectrum spectrum, double[] peakPositions) {
+        int[] bounds = bounds(spectrum, peakPositions);
+        return IntStream.range(0, bounds.length - 1)
+                .parallel()
+                .mapToObj(i -> SpectrumStatistics.of(spectrum.range(bounds[i], bounds[i + 1] + 1)))
+                .toList();
+    }
+
+    /**
+     * Границы областей: индексы первой точки первой области, минимумов между пиками
+     * и последней точки спектра. Точка минимума входит в обе соседние области.
+     */
+    static int[] bounds(Spectrum spectrum, double[] peakPositions) {
+        double[] y = spectrum.y();
+        int n = y.length;
+        if (n == 0 || peakPositions.length == 0) {
+            return new int[0];
+        }
+        int[] peaks = peakIndices(spectrum, peakPositions);
+
+        int[] bounds = new int[peaks.length + 1];
+        bounds[0] = 0;
+        for (int p = 1; p < peaks.length; p++) {
+            int valley = peaks[p - 1];
+            for (int i = peaks[p - 1] + 1; i <= peaks[p]; i++) {
+                if (y[i] < y[valley]) {
+                    valley = i;
+                }
+            }
+            bounds[p] = valley;
+        }
+        bounds[peaks.length] = n - 1;
+        return bounds;
+    }
+
+    /**
+     * Индексы ближайших к пикам точек спектра по возрастанию, без повторов.
+     */
+    private static int[] peakIndices(Spectrum spectrum, double[] peakPositions) {
+        double[] x = spectrum.x();
+        if (x.length == 1) {
+            return new int[]{0};
+        }
+        double sign = SpectrumResampler.direction(x);
+        double[] sorted = peakPositions.clone();
+        Arrays.sort(sorted);
+
+        List<Integer> indices = new ArrayList<>(sorted.length);
+        int cursor = 0;
+        for (double position : sorted) {
+            cursor = SpectrumResampler.locate(x, sign, sign * position, cursor);
+            int index = Math.abs(x[cursor + 1] - position) < Math.abs(x[cursor] - position) ? cursor + 1 : cursor;
+            indices.add(index);
+        }
+        return indices.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.funproject;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Чтение необработанных 16-битных кадров детектора: после заголовка длиной offset байт
+ * идут width * height беззнаковых значений построчно.
+ * <p>
+ * Файл отображается в память через {@link FileChannel#map}, поэтому кадр не копируется в кучу:
+ * интегрирование и показ читают значения прямо из отображенного буфера, а страницы файла
+ * подгружает операционная система.
+ */
+class RawFrameReader {
+
+    private RawFrameReader() {
+    }
+
+    /**
+     * Отображает кадр из файла в память.
+     *
+     * @param path      Файл кадра.
+     * @param width     Ширина кадра.
+     * @param height    Высота кадра.
+     * @param offset    Длина заголовка в байтах.
+     * @param byteOrder Порядок байтов значений.
+     * @return Кадр, данные которого находятся в отображенном буфере.
+     * @throws IOException Если параметры кадра неверны, кадр больше 2 ГБ, файл короче,
+     *                     чем требуют параметры, или не читается.
+     */
+    static GrayFrame map(Path path, int width, int height, long offset, ByteOrder byteOrder) throws IOException {
+        if (width <= 0 || height <= 0 || offset < 0) {
+            throw new IOException("Неверные параметры кадра: " + width + "x" + height + ", смещение " + offset);
+        }
+        long frameBytes = 2L * width * height;
+        if (frameBytes > Integer.MAX_VALUE) {
+            throw new IOException("Кадр " + width + "x" + height + " слишком велик для отображения");
+        }
+
+        // Отображение остается действительным и после закрытия канала
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < offset + frameBytes) {
+                throw new IOException("Файл " + path + " короче кадра " + width + "x" + height
+                        + " со смещением " + offset + ": " + channel.size() + " байт");
+            }
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, offset, frameBytes);
+            return new GrayFrame(width, height, bytes.order(byteOrder).asShortBuffer(), null);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.funproject;
+
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.GridPane;
+import javafx.scene.paint.Color;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import java.nio.ByteOrder;
+
+/**
+ * Окно ввода параметров необработанного кадра детектора: размеры, длина заголовка
+ * и порядок байтов. Введенные значения запоминаются до следующего импорта.
+ */
+public class RawImportDialog extends Stage {
+
+    private static final String LITTLE_ENDIAN = "Little-endian (Intel)";
+    private static final String BIG_ENDIAN = "Big-endian (Motorola)";
+
+    // Параметры последнего импорта
+    private static String lastWidth = "";
+    private static String lastHeight = "";
+    private static String lastOffset = "0";
+    private static String lastByteOrder = LITTLE_ENDIAN;
+
+    private final TextField widthField = new TextField(lastWidth);
+    private final TextField heightField = new TextField(lastHeight);
+    private final TextField offsetField = new TextField(lastOffset);
+    private final ComboBox<String> byteOrderBox = new ComboBox<>();
+    private final Label errorLabel = new Label();
+    private boolean confirmed = false;
+
+    public RawImportDialog(Window owner) {
+        initOwner(owner);
+        initModality(Modality.APPLICATION_MODAL);
+
+        byteOrderBox.getItems().addAll(LITTLE_ENDIAN, BIG_ENDIAN);
+        byteOrderBox.setValue(lastByteOrder);
+        errorLabel.setTextFill(Color.RED);
+
+        Button importButton = new Button("Импортировать");
+        importButton.setDefaultButton(true);
+        importButton.setOnAction(event -> confirm());
+
+        GridPane gridPane = new GridPane();
+        gridPane.setHgap(10);
+        gridPane.setVgap(10);
+        gridPane.setPadding(new Insets(20));
+
+        gridPane.add(new Label("Ширина, пикс.:"), 0, 0);
+        gridPane.add(widthField, 1, 0);
+        gridPane.add(new Label("Высота, пикс.:"), 0, 1);
+        gridPane.add(heightField, 1, 1);
+        gridPane.add(new Label("Заголовок, байт:"), 0, 2);
+        gridPane.add(offsetField, 1, 2);
+        gridPane.add(new Label("Порядок байтов:"), 0, 3);
+        gridPane.add(byteOrderBox, 1, 3);
+        gridPane.add(errorLabel, 0, 4, 2, 1);
+        gridPane.add(importButton, 1, 5);
+
+        setTitle("Импорт RAW-кадров");
+        setScene(new Scene(gridPane));
+    }
+
+    private void confirm() {
+        try {
+            if (getFrameWidth() <= 0 || getFrameHeight() <= 0 || getOffset() < 0) {
+                errorLabel.setText("Размеры должны быть положительными, смещение - неотрицательным.");
+                return;
+            }
+        } catch (NumberFormatException e) {
+            errorLabel.setText("Введите целые числа.");
+            return;
+        }
+        lastWidth = widthField.getText().trim();
+        lastHeight = heightField.getText().trim();
+        lastOffset = offsetField.getText().trim();
+        lastByteOrder = byteOrderBox.getValue();
+        confirmed = true;
+        close();
+    }
+
+    /**
+     * Показывает окно и ждет ввода.
+     *
+     * @return true, если параметры введены и подтверждены.
+     */
+    public boolean showAndConfirm() {
+        showAndWait();
+        return confirmed;
+    }
+
+    public int getFrameWidth() {
+        return Integer.parseInt(widthField.getText().trim());
+    }
+
+    public int getFrameHeight() {
+        return Integer.parseInt(heightField.getText().trim());
+    }
+
+    public long getOffset() {
+        return Long.parseLong(offsetField.getText().trim());
+    }
+
+    public ByteOrder getByteOrder() {
+        return BIG_ENDIAN.equals(byteOrderBox.getValue()) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+    }
+}
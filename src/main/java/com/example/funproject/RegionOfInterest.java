@@ -0,0 +1,70 @@
+package com.example.funproject;
+
+import javafx.scene.image.Image;
+
+import java.nio.ShortBuffer;
+
+/**
+ * Область интереса: полоса строк [startRow, endRow) исходного кадра.
+ * Данные не копируются в отдельный кадр; изображение строится только по запросу {@link #toImage()}.
+ */
+class RegionOfInterest {
+
+    private final GrayFrame source;
+    private final int startRow;
+    private final int endRow;
+
+    RegionOfInterest(GrayFrame source, int startRow, int endRow) {
+        if (startRow < 0 || endRow > source.getHeight() || startRow > endRow) {
+            throw new IllegalArgumentException("Неверный диапазон строк: [" + startRow + ", " + endRow + ")");
+        }
+        this.source = source;
+        this.startRow = startRow;
+        this.endRow = endRow;
+    }
+
+    /**
+     * Область, охватывающая кадр целиком.
+     */
+    static RegionOfInterest of(GrayFrame frame) {
+        return new RegionOfInterest(frame, 0, frame.getHeight());
+    }
+
+    public GrayFrame getSource() {
+        return source;
+    }
+
+    public int getStartRow() {
+        return startRow;
+    }
+
+    public int getEndRow() {
+        return endRow;
+    }
+
+    public int getWidth() {
+        return source.getWidth();
+    }
+
+    public int getHeight() {
+        return endRow - startRow;
+    }
+
+    /**
+     * Копирует строки области в отдельный кадр с окном отображения исходного кадра.
+     */
+    GrayFrame toFrame() {
+        int width = getWidth();
+        short[] samples = new short[width * getHeight()];
+        ShortBuffer sourceSamples = source.samples();
+        sourceSamples.get(startRow * width, samples);
+        return source.derive(width, getHeight(), samples);
+    }
+
+    /**
+     * Строит отдельное изображение области, например для показа пользователю.
+     */
+    Image toImage() {
+        return toFrame().toImage();
+    }
+}
@@ -1,11 +1,12 @@
 package com.example.funproject;
 
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.XYChart;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.GridPane;
@@ -14,15 +15,34 @@ import javafx.stage.Stage;
 
 public class SmoothWindow extends Stage {
 
+    private static final String METHOD_AVERAGE = "Усреднение соседей";
+    private static final String METHOD_SAVITZKY_GOLAY = "Савицкий-Голей";
+    private static final String METHOD_GAUSSIAN = "Гаусс";
+
     // Элементы управления
+    private ComboBox<String> methodComboBox;
     private TextField iterationsField;
+    private TextField windowField;
+    private TextField orderField;
+    private TextField sigmaField;
     private Button smoothButton;
 
     public SmoothWindow(HelloController controller, LineChart<Number, Number> chart) {
         // Инициализация элементов управления
+        methodComboBox = new ComboBox<>();
+        methodComboBox.getItems().addAll(METHOD_AVERAGE, METHOD_SAVITZKY_GOLAY, METHOD_GAUSSIAN);
+        methodComboBox.setValue(METHOD_AVERAGE);
         iterationsField = new TextField("1");  // Значение по умолчанию: 1 итерация
+        windowField = new TextField("11");
+        orderField = new TextField("2");
+        sigmaField = new TextField("2");
         smoothButton = new Button("Сгладить");
 
+        Label iterationsLabel = new Label("Число итераций:");
+        Label windowLabel = new Label("Размер окна (точек):");
+        Label orderLabel = new Label("Степень полинома:");
+        Label sigmaLabel = new Label("Sigma (точек):");
+
         // Создание GridPane для размещения элементов
         GridPane gridPane = new GridPane();
         gridPane.setHgap(10);
@@ -30,13 +50,51 @@ public class SmoothWindow extends Stage {
         gridPane.setPadding(new Insets(20));
 
         // Добавление элементов на GridPane
-        gridPane.add(new Label("Число итераций:"), 0, 0);
-        gridPane.add(iterationsField, 1, 0);
-        gridPane.add(smoothButton, 1, 1);
+        gridPane.add(new Label("Метод:"), 0, 0);
+        gridPane.add(methodComboBox, 1, 0);
+        gridPane.add(iterationsLabel, 0, 1);
+        gridPane.add(iterationsField, 1, 1);
+        gridPane.add(windowLabel, 0, 2);
+        gridPane.add(windowField, 1, 2);
+        gridPane.add(orderLabel, 0, 3);
+        gridPane.add(orderField, 1, 3);
+        gridPane.add(sigmaLabel, 0, 4);
+        gridPane.add(sigmaField, 1, 4);
+        gridPane.add(smoothButton, 1, 5);
+
+        // Показ параметров выбранного метода
+        Runnable updateVisibility = () -> {
+            String method = methodComboBox.getValue();
+            iterationsLabel.setVisible(METHOD_AVERAGE.equals(method));
+            iterationsField.setVisible(METHOD_AVERAGE.equals(method));
+            windowLabel.setVisible(METHOD_SAVITZKY_GOLAY.equals(method));
+            windowField.setVisible(METHOD_SAVITZKY_GOLAY.equals(method));
+            orderLabel.setVisible(METHOD_SAVITZKY_GOLAY.equals(method));
+            orderField.setVisible(METHOD_SAVITZKY_GOLAY.equals(method));
+            sigmaLabel.setVisible(METHOD_GAUSSIAN.equals(method));
+            sigmaField.setVisible(METHOD_GAUSSIAN.equals(method));
+        };
+        methodComboBox.setOnAction(event -> updateVisibility.run());
+        updateVisibility.run();
 
         // Обработка нажатия на кнопку сглаживания
         smoothButton.setOnAction(event -> {
-            smoothLinear(chart, Integer.parseInt(iterationsField.getText()));
+            try {
+                switch (methodComboBox.getValue()) {
+                    case METHOD_SAVITZKY_GOLAY -> smoothWithKernel(chart, SpectrumSmoother.savitzkyGolayKernel(
+                            Integer.parseInt(windowField.getText()), Integer.parseInt(orderField.getText())));
+                    case METHOD_GAUSSIAN -> smoothWithKernel(chart, SpectrumSmoother.gaussianKernel(
+                            Double.parseDouble(sigmaField.getText())));
+                    default -> smoothLinear(chart, Integer.parseInt(iterationsField.getText()));
+                }
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException тоже попадает сюда
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Ошибка");
+                alert.setHeaderText("Неверные параметры сглаживания");
+                alert.setContentText(e.getMessage());
+                alert.showAndWait();
+            }
         });
 
         // Настройка окна
@@ -45,20 +103,37 @@ public class SmoothWindow extends Stage {
         this.setAlwaysOnTop(true);
     }
 
+    /**
+     * Сглаживает последнюю серию графика сверткой с ядром за один проход.
+     */
+    private void smoothWithKernel(LineChart<Number, Number> chart, double[] kernel) {
+        XYChart.Series<Number, Number> series = chart.getData().get(chart.getData().size() - 1);
+        Spectrum spectrum = Spectrum.fromSeries(series);
+        double[] smoothed = new double[spectrum.size()];
+        SpectrumSmoother.convolve(spectrum.y(), kernel, smoothed);
+        series.getData().setAll(spectrum.withY(smoothed).toData());
+    }
+
+    /**
+     * Сглаживает последнюю серию графика усреднением соседних точек.
+     * Расчет выполняется над отдельной копией интенсивностей, а серия
+     * обновляется один раз по окончании всех итераций.
+     */
     private void smoothLinear(LineChart<Number, Number> chart, int iterations) {
         // Получение данных из графика
         XYChart.Series<Number, Number> series = chart.getData().get(chart.getData().size() - 1);
-        ObservableList<XYChart.Data<Number, Number>> data = series.getData();
+        Spectrum spectrum = Spectrum.fromSeries(series);
+        double[] y = spectrum.y().clone();
 
         // Выполнение сглаживания заданное количество итераций
         for (int i = 0; i < iterations; i++) {
-            for (int j = 1; j < data.size() - 1; j++) {
+            for (int j = 1; j < y.length - 1; j++) {
                 // Расчет среднего значения между соседними точками
-                double average = (data.get(j - 1).getYValue().doubleValue() + data.get(j + 1).getYValue().doubleValue()) / 2;
-                // Обновление значения текущей точки
-                data.get(j).setYValue(average);
+                y[j] = (y[j - 1] + y[j + 1]) / 2;
             }
         }
-        // График автоматически обновится с новыми данными
+
+        // Обновление точек графика одним изменением списка
+        series.getData().setAll(spectrum.withY(y).toData());
     }
 }
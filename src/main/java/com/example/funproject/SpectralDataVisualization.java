@@ -1,13 +1,18 @@
 package com.example.funproject;
 
 import javafx.beans.binding.Bindings;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.concurrent.Task;
 import javafx.event.EventHandler;
 import javafx.scene.Cursor;
 import javafx.scene.Node;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.scene.image.PixelReader;
-import javafx.scene.image.WritableImage;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
@@ -30,50 +35,195 @@ public class SpectralDataVisualization {
     private final Line line1 = new Line();
     private final Line line2 = new Line();
     private double initialY;
-    private Image selectedImage;
+    private RegionOfInterest selectedRegion;
+    private SpectrumExtractionTask extractionTask;
+    private final DoubleProperty extractionProgress = new SimpleDoubleProperty(0);
+    private final BooleanProperty extracting = new SimpleBooleanProperty(false);
     public boolean isInVisualizationMode = false;
 
+    // Предпросмотр спектра при перетаскивании линий; таблица учитывается в бюджете хранилища кадров
+    private final FrameStore frameStore;
+    private boolean livePreview = true;
+    // Кадр текущего режима визуализации
+    private GrayFrame visualizationFrame;
+    private GrayFrame previewFrame;
+    private ColumnPrefixSums prefixSums;
+    private Task<ColumnPrefixSums> prefixSumsTask;
+    private XYChart.Series<Number, Number> previewSeries;
+
     private EventHandler<MouseEvent> visualizationMousePressedHandler;
     private EventHandler<MouseEvent> visualizationMouseDraggedHandler;
     private EventHandler<MouseEvent> visualizationMouseReleasedHandler;
 
-    public SpectralDataVisualization() {
-        // Пустой конструктор
+    public SpectralDataVisualization(FrameStore frameStore) {
+        this.frameStore = frameStore;
     }
 
     /**
-     * Обновляет LineChart и TableView на основе данных, полученных из изображения.
+     * Запускает в фоновом потоке построение спектра по области изображения.
+     * Предыдущий незавершенный расчет отменяется. По завершении обновляются LineChart и TableView.
+     *
+     * @return Запущенная задача или null, если нет графика для вывода.
      */
-    public XYChart.Series<Number, Number> updateChartWithSplineData(Tab tab, Image image, TabPane innerTabPane, TableView<SpectralDataTable.SpectralData> tableView) {
-        if (innerTabPane == null || image == null) return null;
+    public SpectrumExtractionTask updateChartWithSplineData(Tab tab, RegionOfInterest region, TabPane innerTabPane,
+                                                            TableView<SpectralDataTable.SpectralData> tableView) {
+        if (innerTabPane == null || region == null) return null;
 
         Tab currentTab = innerTabPane.getSelectionModel().getSelectedItem();
         if (currentTab == null || !(currentTab.getContent() instanceof LineChart)) return null;
 
         LineChart<Number, Number> chart = (LineChart<Number, Number>) currentTab.getContent();
-        XYChart.Series<Number, Number> series = new XYChart.Series<>();
-        series.setName("Spectrum");
-
-        List<SpectralDataTable.SpectralData> tableData = new ArrayList<>();
-        PixelReader pixelReader = image.getPixelReader();
-        int width = (int) image.getWidth();
-        int height = (int) image.getHeight();
-
-        for (int x = 0; x < width; x++) {
-            double totalIntensity = 0;
-            for (int y = 0; y < height; y++) {
-                Color color = pixelReader.getColor(x, y);
-                totalIntensity += (color.getRed() + color.getGreen() + color.getBlue()) / 3.0;
+
+        cancelExtraction();
+        SpectrumExtractionTask task = new SpectrumExtractionTask(region);
+        task.setOnSucceeded(event -> {
+            if (extractionTask == task) {
+                showSpectrum(tab, chart, tableView, task.getValue());
             }
-            double averageIntensity = totalIntensity / height;
-            series.getData().add(new XYChart.Data<>(x, averageIntensity * 100));
-            tableData.add(new SpectralDataTable.SpectralData(x, averageIntensity * 100));
+        });
+        task.setOnFailed(event -> task.getException().printStackTrace());
+        extractionProgress.bind(task.progressProperty());
+        extracting.bind(task.runningProperty());
+        extractionTask = task;
+
+        Thread thread = new Thread(task, "spectrum-extraction");
+        thread.setDaemon(true);
+        thread.start();
+        return task;
+    }
+
+    /**
+     * Отменяет текущий расчет спектра, если он еще выполняется.
+     */
+    public void cancelExtraction() {
+        if (extractionTask != null) {
+            extractionTask.cancel();
+            extractionTask = null;
         }
+    }
 
-        updateTableWithSplineData(tableView, tableData);
-        visualizeFromTable(tab, chart, tableView);
+    /**
+     * Выводит готовый спектр в таблицу и на график.
+     */
+    private void showSpectrum(Tab tab, LineChart<Number, Number> chart,
+                              TableView<SpectralDataTable.SpectralData> tableView,
+                              XYChart.Series<Number, Number> series) {
+        SpectralDataTable.updateTableViewInTab(tab, series.getData(), tableView);
+        chart.getData().clear();
+        chart.getData().add(series);
+        chart.setCreateSymbols(false);
+        chart.setLegendVisible(false);
+    }
 
-        return series;
+    /**
+     * Строит в фоне таблицу накопленных сумм для кадра, если ее еще нет. Таблица другого
+     * кадра при этом освобождается; таблица того же кадра сохраняется между входами в режим.
+     */
+    private void preparePreview(GrayFrame frame) {
+        if (frame == null || frame == previewFrame) return;
+        discardPreview();
+
+        Task<ColumnPrefixSums> task = new Task<>() {
+            @Override
+            protected ColumnPrefixSums call() {
+                return ColumnPrefixSums.build(frame);
+            }
+        };
+        task.setOnSucceeded(event -> {
+            if (prefixSumsTask == task) {
+                prefixSums = task.getValue();
+                frameStore.reserve(prefixSums.sizeInBytes());
+            }
+        });
+        task.setOnFailed(event -> task.getException().printStackTrace());
+        previewFrame = frame;
+        prefixSumsTask = task;
+
+        Thread thread = new Thread(task, "spectrum-preview");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Отменяет построение таблицы накопленных сумм и возвращает ее место в бюджет хранилища.
+     */
+    private void discardPreview() {
+        if (prefixSumsTask != null) {
+            prefixSumsTask.cancel();
+            prefixSumsTask = null;
+        }
+        if (prefixSums != null) {
+            frameStore.unreserve(prefixSums.sizeInBytes());
+            prefixSums = null;
+        }
+        previewFrame = null;
+    }
+
+    /**
+     * Освобождает таблицу предпросмотра удаленного или замененного кадра.
+     */
+    public void releaseFrame(GrayFrame frame) {
+        if (frame == previewFrame) {
+            discardPreview();
+        }
+    }
+
+    /**
+     * Пересчитывает спектр полосы между линиями по таблице накопленных сумм
+     * и показывает его на текущем графике. Пока таблица строится, ничего не делает.
+     */
+    private void previewSpectrum(ImageView imageView, GrayFrame frame, TabPane innerTabPane) {
+        if (prefixSums == null || prefixSums.getSource() != frame || innerTabPane == null) return;
+
+        Tab currentTab = innerTabPane.getSelectionModel().getSelectedItem();
+        if (currentTab == null || !(currentTab.getContent() instanceof LineChart)) return;
+        LineChart<Number, Number> chart = (LineChart<Number, Number>) currentTab.getContent();
+
+        RegionOfInterest region = getSelectedRegion(imageView, frame);
+        if (region == null) return;
+
+        double[] profile = prefixSums.bandProfile(region.getStartRow(), region.getEndRow());
+        List<XYChart.Data<Number, Number>> points = new ArrayList<>(profile.length);
+        for (int x = 0; x < profile.length; x++) {
+            points.add(new XYChart.Data<>(x, profile[x] * 100));
+        }
+
+        // Без анимации только на время обновления предпросмотра
+        boolean animated = chart.getAnimated();
+        chart.setAnimated(false);
+        if (previewSeries == null || !chart.getData().contains(previewSeries)) {
+            previewSeries = new XYChart.Series<>();
+            previewSeries.setName("Спектр");
+            chart.getData().clear();
+            chart.getData().add(previewSeries);
+            chart.setCreateSymbols(false);
+            chart.setLegendVisible(false);
+        }
+        previewSeries.getData().setAll(points);
+        chart.setAnimated(animated);
+    }
+
+    public boolean isLivePreview() {
+        return livePreview;
+    }
+
+    /**
+     * Включает или выключает предпросмотр. Если режим визуализации уже включен,
+     * таблица для его кадра начинает строиться сразу.
+     */
+    public void setLivePreview(boolean livePreview) {
+        this.livePreview = livePreview;
+        if (livePreview && isInVisualizationMode) {
+            preparePreview(visualizationFrame);
+        }
+    }
+
+    public ReadOnlyDoubleProperty extractionProgressProperty() {
+        return extractionProgress;
+    }
+
+    public ReadOnlyBooleanProperty extractingProperty() {
+        return extracting;
     }
 
     /**
@@ -103,8 +253,9 @@ public class SpectralDataVisualization {
     /**
      * Настраивает курсор для ImageView и добавляет линии, следящие за курсором.
      */
-    public void setImageViewCursorAndLines(ImageView imageView, Tab currentTab, TabPane innerTabPane, TableView<SpectralDataTable.SpectralData> tableView) {
+    public void setImageViewCursorAndLines(ImageView imageView, GrayFrame frame, Tab currentTab, TabPane innerTabPane, TableView<SpectralDataTable.SpectralData> tableView) {
         visualizationMousePressedHandler = event -> {
+            cancelExtraction();
             Pane parentPane = (Pane) imageView.getParent();
             initialY = event.getY();
             addHorizontalLine(initialY, imageView, parentPane, line1);
@@ -115,13 +266,17 @@ public class SpectralDataVisualization {
             double currentY = event.getY();
             updateLinePosition(line1, currentY, imageView);
             updateLinePosition(line2, 2 * initialY - currentY, imageView);
+            if (livePreview) {
+                previewSpectrum(imageView, frame, innerTabPane);
+            }
         };
 
         visualizationMouseReleasedHandler = event -> {
             Pane parentPane = (Pane) imageView.getParent();
-            selectedImage = getSelectedRegionImage(imageView);
-            if (selectedImage != null) {
-                updateChartWithSplineData(currentTab, selectedImage, innerTabPane, tableView);
+            RegionOfInterest region = getSelectedRegion(imageView, frame);
+            if (region != null) {
+                selectedRegion = region;
+                updateChartWithSplineData(currentTab, region, innerTabPane, tableView);
             }
             exitVisualizationMode(parentPane);
         };
@@ -131,6 +286,10 @@ public class SpectralDataVisualization {
         imageView.addEventHandler(MouseEvent.MOUSE_RELEASED, visualizationMouseReleasedHandler);
 
         isInVisualizationMode = true;
+        visualizationFrame = frame;
+        if (livePreview) {
+            preparePreview(frame);
+        }
         imageView.setOnMouseEntered(event -> imageView.setCursor(Cursor.CROSSHAIR));
         imageView.setOnMouseExited(event -> imageView.setCursor(Cursor.DEFAULT));
     }
@@ -168,18 +327,17 @@ public class SpectralDataVisualization {
     }
 
     /**
-     * Получает выбранную область изображения.
+     * Определяет область кадра между линиями выделения. Данные при этом не копируются.
+     *
+     * @return Область или null, если полоса пуста.
      */
-    private Image getSelectedRegionImage(ImageView imageView) {
+    private RegionOfInterest getSelectedRegion(ImageView imageView, GrayFrame frame) {
         double minY = Math.min(line1.getStartY(), line2.getStartY());
         double maxY = Math.max(line1.getStartY(), line2.getStartY());
 
-        Image image = imageView.getImage();
-        if (image == null || image.getPixelReader() == null) return null;
+        if (frame == null || imageView.getImage() == null) return null;
 
-        PixelReader pixelReader = image.getPixelReader();
-        int width = (int) image.getWidth();
-        int height = (int) image.getHeight();
+        int height = frame.getHeight();
         double scaleY = imageView.getBoundsInParent().getHeight() / height;
 
         int startY = (int) (minY / scaleY);
@@ -187,14 +345,16 @@ public class SpectralDataVisualization {
 
         startY = Math.max(0, startY);
         endY = Math.min(height, endY);
+        return endY > startY ? new RegionOfInterest(frame, startY, endY) : null;
+    }
 
-        WritableImage selectedImage = new WritableImage(width, endY - startY);
-        for (int x = 0; x < width; x++) {
-            for (int y = startY; y < endY; y++) {
-                selectedImage.getPixelWriter().setColor(x, y - startY, pixelReader.getColor(x, y));
-            }
-        }
-        return selectedImage;
+    /**
+     * Строит изображение последней выделенной области для просмотра.
+     *
+     * @return Изображение области или null, если область еще не выделялась.
+     */
+    public Image getSelectedRegionImage() {
+        return selectedRegion != null ? selectedRegion.toImage() : null;
     }
 
     /**
@@ -202,6 +362,7 @@ public class SpectralDataVisualization {
      */
     public void exitVisualizationMode(Pane parentPane) {
         parentPane.getChildren().removeAll(line1, line2);
+        visualizationFrame = null;
 
         if (isInVisualizationMode) {
             parentPane.getChildren().filtered(node -> node instanceof ImageView).forEach(node -> {
@@ -220,7 +381,7 @@ public class SpectralDataVisualization {
     /**
      * Вход в режим визуализации.
      */
-    public void enterVisualizationMode(ImageView imageView, Tab currentTab, TabPane innerTabPane, TableView<SpectralDataTable.SpectralData> tableView) {
-        setImageViewCursorAndLines(imageView, currentTab, innerTabPane, tableView);
+    public void enterVisualizationMode(ImageView imageView, GrayFrame frame, Tab currentTab, TabPane innerTabPane, TableView<SpectralDataTable.SpectralData> tableView) {
+        setImageViewCursorAndLines(imageView, frame, currentTab, innerTabPane, tableView);
     }
 }
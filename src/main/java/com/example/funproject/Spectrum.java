@@ -0,0 +1,146 @@
+package com.example.funproject;
+
+import javafx.scene.chart.XYChart;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Спектр в виде двух массивов: координаты x (пиксели или энергии) и интенсивности y.
+ * Расчеты выполняются над массивами, а серия графика строится из спектра только для показа,
+ * поэтому значения не упаковываются и события списка не возникают на каждую точку.
+ * <p>
+ * Массивы принадлежат спектру: {@link #x()} и {@link #y()} возвращают их без копирования,
+ * изменять их вызывающему коду не следует. Операции возвращают новые спектры.
+ */
+class Spectrum {
+
+    private final double[] x;
+    private final double[] y;
+
+    Spectrum(double[] x, double[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("Несоответствие длины данных: x = " + x.length + ", y = " + y.length);
+        }
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Читает спектр из серии графика за один проход.
+     */
+    static Spectrum fromSeries(XYChart.Series<Number, Number> series) {
+        return fromData(series.getData());
+    }
+
+    static Spectrum fromData(List<XYChart.Data<Number, Number>> data) {
+        int size = data.size();
+        double[] x = new double[size];
+        double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            XYChart.Data<Number, Number> point = data.get(i);
+            x[i] = point.getXValue().doubleValue();
+            y[i] = point.getYValue().doubleValue();
+        }
+        return new Spectrum(x, y);
+    }
+
+    int size() {
+        return x.length;
+    }
+
+    boolean isEmpty() {
+        return x.length == 0;
+    }
+
+    double x(int i) {
+        return x[i];
+    }
+
+    double y(int i) {
+        return y[i];
+    }
+
+    double[] x() {
+        return x;
+    }
+
+    double[] y() {
+        return y;
+    }
+
+    /**
+     * Копия точек с индексами от from (включительно) до to (не включительно).
+     */
+    Spectrum range(int from, int to) {
+        return new Spectrum(Arrays.copyOfRange(x, from, to), Arrays.copyOfRange(y, from, to));
+    }
+
+    /**
+     * Спектр с теми же координатами и новыми интенсивностями.
+     */
+    Spectrum withY(double[] newY) {
+        return new Spectrum(x, newY);
+    }
+
+    /**
+     * Спектр с интенсивностями, умноженными на factor.
+     */
+    Spectrum scaleY(double factor) {
+        double[] scaled = new double[y.length];
+        for (int i = 0; i < y.length; i++) {
+            scaled[i] = y[i] * factor;
+        }
+        return withY(scaled);
+    }
+
+    /**
+     * Максимальная интенсивность или defaultValue для пустого спектра.
+     */
+    double maxY(double defaultValue) {
+        if (y.length == 0) return defaultValue;
+        double max = y[0];
+        for (int i = 1; i < y.length; i++) {
+            max = Math.max(max, y[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Индекс точки, ближайшей по x к targetX (первой из равноудаленных), или -1 для пустого спектра.
+     */
+    int closestIndex(double targetX) {
+        int closestIndex = -1;
+        double closestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < x.length; i++) {
+            double distance = Math.abs(x[i] - targetX);
+            if (distance < closestDistance) {
+                closestDistance = distance;
+                closestIndex = i;
+            }
+        }
+        return closestIndex;
+    }
+
+    /**
+     * Точки спектра для графика или таблицы.
+     */
+    List<XYChart.Data<Number, Number>> toData() {
+        List<XYChart.Data<Number, Number>> data = new ArrayList<>(x.length);
+        for (int i = 0; i < x.length; i++) {
+            data.add(new XYChart.Data<>(x[i], y[i]));
+        }
+        return data;
+    }
+
+    /**
+     * Строит серию графика; точки добавляются одним изменением списка.
+     */
+    XYChart.Series<Number, Number> toSeries(String name) {
+        XYChart.Series<Number, Number> series = new XYChart.Series<>();
+        series.setName(name);
+        series.getData().setAll(toData());
+        return series;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.funproject;
+
+import javafx.concurrent.Task;
+import javafx.scene.chart.XYChart;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Фоновая задача построения спектра по выделенной области изображения.
+ * Сообщает о ходе интегрирования и прерывается при отмене; в поток JavaFX
+ * передается только готовая серия.
+ */
+class SpectrumExtractionTask extends Task<XYChart.Series<Number, Number>> {
+
+    private final RegionOfInterest region;
+
+    /**
+     * @param region Полоса строк изображения, по которой строится спектр.
+     */
+    SpectrumExtractionTask(RegionOfInterest region) {
+        this.region = region;
+    }
+
+    @Override
+    protected XYChart.Series<Number, Number> call() {
+        updateMessage("Извлечение спектра");
+        int totalRows = region.getHeight();
+        AtomicInteger rowsDone = new AtomicInteger();
+        double[] profile = SpectrumIntegrator.columnProfile(region, new SpectrumIntegrator.Monitor() {
+            @Override
+            public boolean isCancelled() {
+                return SpectrumExtractionTask.this.isCancelled();
+            }
+
+            @Override
+            public void rowsCompleted(int rows) {
+                updateProgress(rowsDone.addAndGet(rows), totalRows);
+            }
+        });
+
+        List<XYChart.Data<Number, Number>> points = new ArrayList<>(profile.length);
+        for (int x = 0; x < profile.length; x++) {
+            points.add(new XYChart.Data<>(x, profile[x] * 100));
+        }
+
+        XYChart.Series<Number, Number> series = new XYChart.Series<>();
+        series.setName("Спектр");
+        series.getData().setAll(points);
+        return series;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.funproject;
+
+import java.nio.ShortBuffer;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Интегрирование кадра по столбцам для построения спектра.
+ * Интенсивности читаются напрямую из буфера кадра, без промежуточных копий.
+ * Большие области делятся на полосы строк, которые суммируются параллельно в ForkJoinPool.
+ */
+class SpectrumIntegrator {
+
+    // Области меньше этого числа пикселей быстрее посчитать в одном потоке
+    private static final int PARALLEL_THRESHOLD_PIXELS = 1 << 18;
+    private static final int MIN_STRIPE_ROWS = 16;
+
+    /**
+     * Наблюдатель за ходом интегрирования: получает число обработанных строк
+     * и может прервать расчет. Методы вызываются из рабочих потоков.
+     */
+    interface Monitor {
+        Monitor NONE = new Monitor() {
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+
+            @Override
+            public void rowsCompleted(int rows) {
+            }
+        };
+
+        boolean isCancelled();
+
+        void rowsCompleted(int rows);
+    }
+
+    private SpectrumIntegrator() {
+    }
+
+    /**
+     * Вычисляет профиль кадра: среднюю по столбцу интенсивность в диапазоне 0..1.
+     *
+     * @param frame Исходный кадр.
+     * @return Массив длиной, равной ширине кадра.
+     */
+    static double[] columnProfile(GrayFrame frame) {
+        return columnProfile(RegionOfInterest.of(frame), Monitor.NONE);
+    }
+
+    /**
+     * Вычисляет профиль области интереса, читая только ее строки из кадра.
+     * Наблюдатель получает сведения о ходе расчета.
+     *
+     * @throws CancellationException Если наблюдатель отменил расчет.
+     */
+    static double[] columnProfile(RegionOfInterest region, Monitor monitor) {
+        int width = region.getWidth();
+        int height = region.getHeight();
+        double[] profile = new double[width];
+        if (width == 0 || height == 0) {
+            return profile;
+        }
+
+        ShortBuffer samples = region.getSource().samples();
+        long[] columnSums = columnSums(samples, width, region.getStartRow(), region.getEndRow(),
+                ForkJoinPool.commonPool(), monitor);
+
+        double scale = 1.0 / ((double) GrayFrame.MAX_VALUE * height);
+        for (int x = 0; x < width; x++) {
+            profile[x] = columnSums[x] * scale;
+        }
+        return profile;
+    }
+
+    /**
+     * Суммирует интенсивности по столбцам для строк [startRow, endRow).
+     * Небольшие области считаются в текущем потоке, большие - полосами в переданном пуле.
+     * Результат в обоих случаях один и тот же.
+     *
+     * @throws CancellationException Если наблюдатель отменил расчет.
+     */
+    static long[] columnSums(ShortBuffer samples, int width, int startRow, int endRow, ForkJoinPool pool, Monitor monitor) {
+        int rows = endRow - startRow;
+        if ((long) rows * width < PARALLEL_THRESHOLD_PIXELS || pool.getParallelism() < 2) {
+            long[] sums = new long[width];
+            for (int y = startRow; y < endRow; y += MIN_STRIPE_ROWS) {
+                int stripeEnd = Math.min(endRow, y + MIN_STRIPE_ROWS);
+                accumulateStripe(samples, width, y, stripeEnd, sums, monitor);
+            }
+            return sums;
+        }
+        // Примерно по четыре полосы на поток, чтобы work-stealing выравнивал нагрузку
+        int stripeRows = Math.max(MIN_STRIPE_ROWS, rows / (pool.getParallelism() * 4));
+        return pool.invoke(new StripeTask(samples, width, startRow, endRow, stripeRows, monitor));
+    }
+
+    private static void accumulateStripe(ShortBuffer samples, int width, int startRow, int endRow, long[] columnSums, Monitor monitor) {
+        if (monitor.isCancelled()) {
+            throw new CancellationException();
+        }
+        accumulateRows(samples, width, startRow, endRow, columnSums);
+        monitor.rowsCompleted(endRow - startRow);
+    }
+
+    /**
+     * Добавляет к суммам столбцов интенсивности строк [startRow, endRow).
+     * Суммы целочисленные, поэтому результат не зависит от порядка сложения.
+     */
+    static void accumulateRows(ShortBuffer samples, int width, int startRow, int endRow, long[] columnSums) {
+        for (int y = startRow; y < endRow; y++) {
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                columnSums[x] += samples.get(offset + x) & 0xFFFF;
+            }
+        }
+    }
+
+    /**
+     * Задача суммирования полосы строк. Делит полосу пополам, пока она не станет
+     * не больше stripeRows, затем складывает частичные суммы столбцов.
+     */
+    private static class StripeTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final ShortBuffer samples;
+        private final int width;
+        private final int startRow;
+        private final int endRow;
+        private final int stripeRows;
+        private final Monitor monitor;
+
+        StripeTask(ShortBuffer samples, int width, int startRow, int endRow, int stripeRows, Monitor monitor) {
+            this.samples = samples;
+            this.width = width;
+            this.startRow = startRow;
+            this.endRow = endRow;
+            this.stripeRows = stripeRows;
+            this.monitor = monitor;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (endRow - startRow <= stripeRows) {
+                long[] sums = new long[width];
+                accumulateStripe(samples, width, startRow, endRow, sums, monitor);
+                return sums;
+            }
+
+            int middle = (startRow + endRow) >>> 1;
+            StripeTask top = new StripeTask(samples, width, startRow, middle, stripeRows, monitor);
+            StripeTask bottom = new StripeTask(samples, width, middle, endRow, stripeRows, monitor);
+            top.fork();
+            long[] sums = bottom.compute();
+            long[] topSums = top.join();
+            for (int x = 0; x < width; x++) {
+                sums[x] += topSums[x];
+            }
+            return sums;
+        }
+    }
+}
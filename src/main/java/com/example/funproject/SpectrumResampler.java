@@ -0,0 +1,152 @@
+package com.example.funproject;
+
+import org.apache.commons.math3.analysis.interpolation.AkimaSplineInterpolator;
+import org.apache.commons.math3.analysis.interpolation.SplineInterpolator;
+import org.apache.commons.math3.analysis.polynomials.PolynomialFunction;
+import org.apache.commons.math3.analysis.polynomials.PolynomialSplineFunction;
+
+/**
+ * Пересчет спектра на новую сетку по x линейной интерполяцией или сплайном. Координаты спектра должны быть монотонными,
+ * по возрастанию или по убыванию. Интервал для каждой новой точки ищется от предыдущего:
+ * если новые точки монотонны, в любом направлении, весь пересчет занимает O(n + m),
+ * для точек в произвольном порядке - O(m log n).
+ */
+class SpectrumResampler {
+
+    private SpectrumResampler() {
+    }
+
+    /**
+     * Линейная интерполяция спектра в точках targetX. За пределами спектра значения
+     * продолжаются по крайнему интервалу.
+     *
+     * @throws IllegalArgumentException Если в спектре меньше двух точек.
+     */
+    static Spectrum linear(Spectrum source, double[] targetX) {
+        double[] x = source.x();
+        double[] y = source.y();
+        if (x.length < 2) {
+            throw new IllegalArgumentException("Недостаточно точек для интерполяции: " + x.length);
+        }
+        double sign = direction(x);
+
+        double[] result = new double[targetX.length];
+        int cursor = 0;
+        for (int j = 0; j < targetX.length; j++) {
+            double t = targetX[j];
+            cursor = locate(x, sign, sign * t, cursor);
+            double x1 = x[cursor];
+            double x2 = x[cursor + 1];
+            result[j] = x2 == x1 ? y[cursor] : y[cursor] + (y[cursor + 1] - y[cursor]) * (t - x1) / (x2 - x1);
+        }
+        return new Spectrum(targetX, result);
+    }
+
+    /**
+     * Интерполяция естественным кубическим сплайном.
+     *
+     * @throws IllegalArgumentException Если в спектре меньше трех точек или координаты повторяются.
+     */
+    static Spectrum spline(Spectrum source, double[] targetX) {
+        double[][] ascending = ascending(source);
+        return evaluate(new SplineInterpolator().interpolate(ascending[0], ascending[1]), targetX);
+    }
+
+    /**
+     * Интерполяция сплайном Акимы: меньше выбросов около резких перепадов, чем у кубического сплайна.
+     *
+     * @throws IllegalArgumentException Если в спектре меньше пяти точек или координаты повторяются.
+     */
+    static Spectrum akima(Spectrum source, double[] targetX) {
+        double[][] ascending = ascending(source);
+        return evaluate(new AkimaSplineInterpolator().interpolate(ascending[0], ascending[1]), targetX);
+    }
+
+    /**
+     * Значения сплайна в точках targetX. Полином нужного участка ищется тем же курсором,
+     * что и при линейной интерполяции, а не двоичным поиском на каждую точку.
+     * За пределами спектра продолжается полином крайнего участка.
+     */
+    private static Spectrum evaluate(PolynomialSplineFunction function, double[] targetX) {
+        double[] knots = function.getKnots();
+        PolynomialFunction[] polynomials = function.getPolynomials();
+
+        double[] result = new double[targetX.length];
+        int cursor = 0;
+        for (int j = 0; j < targetX.length; j++) {
+            double t = targetX[j];
+            cursor = locate(knots, 1, t, cursor);
+            result[j] = polynomials[cursor].value(t - knots[cursor]);
+        }
+        return new Spectrum(targetX, result);
+    }
+
+    /**
+     * Координаты и интенсивности спектра по возрастанию x, как требуют интерполяторы commons-math.
+     */
+    private static double[][] ascending(Spectrum source) {
+        double[] x = source.x();
+        double[] y = source.y();
+        if (x.length == 0 || direction(x) > 0) {
+            return new double[][]{x, y};
+        }
+        int n = x.length;
+        double[] reversedX = new double[n];
+        double[] reversedY = new double[n];
+        for (int i = 0; i < n; i++) {
+            reversedX[i] = x[n - 1 - i];
+            reversedY[i] = y[n - 1 - i];
+        }
+        return new double[][]{reversedX, reversedY};
+    }
+
+    /**
+     * 1 для спектра по возрастанию x, -1 для спектра по убыванию.
+     */
+    static double direction(double[] x) {
+        return x[x.length - 1] < x[0] ? -1 : 1;
+    }
+
+    /**
+     * Начало интервала [i, i + 1], содержащего точку: наибольший i из [0, n - 2],
+     * для которого sign * x[i] <= t, или 0, если точка левее всего спектра.
+     * Поиск идет от cursor с удвоением шага в обе стороны, поэтому стоит O(log k),
+     * где k - число пройденных интервалов.
+     *
+     * @param t Координата точки, уже умноженная на sign.
+     */
+    static int locate(double[] x, double sign, double t, int cursor) {
+        int last = x.length - 2;
+        int lo;
+        int hi;
+        if (sign * x[cursor] <= t) {
+            lo = cursor;
+            int step = 1;
+            while (lo + step <= last && sign * x[lo + step] <= t) {
+                lo += step;
+                step <<= 1;
+            }
+            hi = Math.min(lo + step - 1, last);
+        } else {
+            hi = cursor;
+            int step = 1;
+            while (hi - step >= 0 && sign * x[hi - step] > t) {
+                hi -= step;
+                step <<= 1;
+            }
+            if (hi == 0) return 0;
+            lo = Math.max(hi - step, 0);
+            hi--;
+        }
+
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (sign * x[mid] <= t) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+}
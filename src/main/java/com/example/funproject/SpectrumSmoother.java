@@ -0,0 +1,185 @@
+package com.example.funproject;
+
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+import org.apache.commons.math3.transform.DftNormalization;
+import org.apache.commons.math3.transform.FastFourierTransformer;
+import org.apache.commons.math3.transform.TransformType;
+
+/**
+ * Сглаживание спектра сверткой с симметричным ядром. Ядра рассчитываются один раз
+ * на набор параметров, а свертка выполняется за один проход в заранее выделенный массив
+ * или, для широких ядер, через быстрое преобразование Фурье.
+ * За краями спектра значения берутся зеркально, поэтому длина результата равна длине входа.
+ */
+class SpectrumSmoother {
+
+    // Начиная с этой длины ядра свертка через БПФ быстрее прямой
+    static final int FFT_KERNEL_THRESHOLD = 128;
+
+    private SpectrumSmoother() {
+    }
+
+    /**
+     * Ядро фильтра Савицкого-Голея: значение в центре окна полинома степени order,
+     * подобранного методом наименьших квадратов по window точкам.
+     *
+     * @param window Нечетное число точек окна.
+     * @param order  Степень полинома, меньше window.
+     */
+    static double[] savitzkyGolayKernel(int window, int order) {
+        if (window < 1 || window % 2 == 0) {
+            throw new IllegalArgumentException("Размер окна должен быть нечетным положительным числом: " + window);
+        }
+        if (order < 0 || order >= window) {
+            throw new IllegalArgumentException("Степень полинома должна быть от 0 до " + (window - 1) + ": " + order);
+        }
+        int half = window / 2;
+
+        // Нормальные уравнения по t = k / half; масштаб не меняет значение в центре, но улучшает обусловленность
+        RealMatrix normal = MatrixUtils.createRealMatrix(order + 1, order + 1);
+        for (int k = -half; k <= half; k++) {
+            double t = half == 0 ? 0 : (double) k / half;
+            for (int i = 0; i <= order; i++) {
+                for (int j = 0; j <= order; j++) {
+                    normal.addToEntry(i, j, Math.pow(t, i + j));
+                }
+            }
+        }
+        RealVector unit = MatrixUtils.createRealVector(new double[order + 1]);
+        unit.setEntry(0, 1);
+        RealVector c = new LUDecomposition(normal).getSolver().solve(unit);
+
+        double[] kernel = new double[window];
+        for (int k = -half; k <= half; k++) {
+            double t = half == 0 ? 0 : (double) k / half;
+            double value = 0;
+            for (int j = 0; j <= order; j++) {
+                value += c.getEntry(j) * Math.pow(t, j);
+            }
+            kernel[k + half] = value;
+        }
+        return kernel;
+    }
+
+    /**
+     * Нормированное ядро Гаусса радиусом 3 sigma.
+     *
+     * @param sigma Стандартное отклонение в точках спектра.
+     */
+    static double[] gaussianKernel(double sigma) {
+        if (!(sigma > 0)) {
+            throw new IllegalArgumentException("Ширина ядра Гаусса должна быть положительной: " + sigma);
+        }
+        int half = (int) Math.ceil(3 * sigma);
+        double[] kernel = new double[2 * half + 1];
+        double sum = 0;
+        for (int k = -half; k <= half; k++) {
+            double value = Math.exp(-0.5 * k * k / (sigma * sigma));
+            kernel[k + half] = value;
+            sum += value;
+        }
+        for (int i = 0; i < kernel.length; i++) {
+            kernel[i] /= sum;
+        }
+        return kernel;
+    }
+
+    /**
+     * Свертка y с ядром нечетной длины в массив out той же длины, что y.
+     * Массивы y и out не должны совпадать. Для ядер длиной от {@link #FFT_KERNEL_THRESHOLD}
+     * свертка выполняется через БПФ, иначе напрямую без выделения памяти.
+     */
+    static void convolve(double[] y, double[] kernel, double[] out) {
+        if (out.length != y.length) {
+            throw new IllegalArgumentException("Несоответствие длины данных: " + y.length + " и " + out.length);
+        }
+        if (kernel.length >= FFT_KERNEL_THRESHOLD && y.length > 0) {
+            convolveFft(y, kernel, out);
+        } else {
+            convolveDirect(y, kernel, out);
+        }
+    }
+
+    static void convolveDirect(double[] y, double[] kernel, double[] out) {
+        int n = y.length;
+        int half = kernel.length / 2;
+
+        // Внутренние точки, для которых окно целиком внутри спектра
+        int from = Math.min(half, n);
+        int to = Math.max(from, n - half);
+        for (int i = from; i < to; i++) {
+            double sum = 0;
+            int start = i - half;
+            for (int k = 0; k < kernel.length; k++) {
+                sum += kernel[k] * y[start + k];
+            }
+            out[i] = sum;
+        }
+
+        // Края с зеркальным продолжением спектра
+        for (int i = 0; i < from; i++) {
+            out[i] = convolveAt(y, kernel, i);
+        }
+        for (int i = to; i < n; i++) {
+            out[i] = convolveAt(y, kernel, i);
+        }
+    }
+
+    /**
+     * Свертка через БПФ: O(n log n) вместо O(n·k). Спектр продолжается зеркально на половину
+     * ядра с каждой стороны и дополняется нулями до степени двойки, чтобы свертка не была циклической.
+     */
+    static void convolveFft(double[] y, double[] kernel, double[] out) {
+        int n = y.length;
+        int half = kernel.length / 2;
+        int extended = n + 2 * half;
+        int size = Integer.highestOneBit(extended + kernel.length - 1);
+        if (size < extended + kernel.length - 1) {
+            size <<= 1;
+        }
+
+        double[][] signal = new double[2][size];
+        for (int j = 0; j < extended; j++) {
+            signal[0][j] = y[reflect(j - half, n)];
+        }
+        // Ядро переворачивается, чтобы результат совпадал с прямой сверткой и для несимметричных ядер
+        double[][] response = new double[2][size];
+        for (int k = 0; k < kernel.length; k++) {
+            response[0][k] = kernel[kernel.length - 1 - k];
+        }
+
+        FastFourierTransformer.transformInPlace(signal, DftNormalization.STANDARD, TransformType.FORWARD);
+        FastFourierTransformer.transformInPlace(response, DftNormalization.STANDARD, TransformType.FORWARD);
+        for (int j = 0; j < size; j++) {
+            double re = signal[0][j] * response[0][j] - signal[1][j] * response[1][j];
+            double im = signal[0][j] * response[1][j] + signal[1][j] * response[0][j];
+            signal[0][j] = re;
+            signal[1][j] = im;
+        }
+        FastFourierTransformer.transformInPlace(signal, DftNormalization.STANDARD, TransformType.INVERSE);
+
+        System.arraycopy(signal[0], kernel.length - 1, out, 0, n);
+    }
+
+    private static double convolveAt(double[] y, double[] kernel, int i) {
+        int half = kernel.length / 2;
+        double sum = 0;
+        for (int k = 0; k < kernel.length; k++) {
+            sum += kernel[k] * y[reflect(i - half + k, y.length)];
+        }
+        return sum;
+    }
+
+    /**
+     * Индекс внутри [0, n) при зеркальном продолжении: -1 -> 1, n -> n - 2.
+     */
+    private static int reflect(int index, int n) {
+        if (n == 1) return 0;
+        int period = 2 * (n - 1);
+        int i = Math.floorMod(index, period);
+        return i < n ? i : period - i;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.funproject;
+
+/**
+ * Характеристики спектральной линии, рассчитанные за два прохода по массивам спектра:
+ * в первом находятся максимум, суммы и площадь, во втором - точки на 95% и на половине высоты.
+ * Максимум уточняется вершиной параболы через наибольшую точку и ее соседей, а пересечения
+ * уровней - линейной интерполяцией между точками, поэтому результат не привязан к шагу сетки.
+ *
+ * @param energyMax         Энергия максимума: середина между пересечениями уровня 95% высоты.
+ * @param peakPosition      Положение вершины максимума.
+ * @param maxIntensity      Высота вершины максимума.
+ * @param centerOfGravity   Центр тяжести: сумма x·y, деленная на сумму y.
+ * @param halfMaxLeft       Пересечение половины высоты слева от максимума.
+ * @param halfMaxRight      Пересечение половины высоты справа от максимума.
+ * @param width             Ширина на половине высоты.
+ * @param asymmetry         Отношение сумм интенсивностей слева и справа от максимума.
+ * @param integralIntensity Сумма интенсивностей.
+ * @param area              Площадь под спектром по методу трапеций.
+ */
+record SpectrumStatistics(double energyMax,
+                          double peakPosition,
+                          double maxIntensity,
+                          double centerOfGravity,
+                          double halfMaxLeft,
+                          double halfMaxRight,
+                          double width,
+                          double asymmetry,
+                          double integralIntensity,
+                          double area) {
+
+    /**
+     * Рассчитывает характеристики спектра.
+     *
+     * @throws IllegalArgumentException Если спектр пуст.
+     */
+    static SpectrumStatistics of(Spectrum spectrum) {
+        double[] x = spectrum.x();
+        double[] y = spectrum.y();
+        int n = y.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("Спектр пуст");
+        }
+
+        // 1. Максимум, суммы и площадь
+        int maxIndex = 0;
+        double maxY = y[0];
+        double sumBeforeMax = 0;
+        double sum = 0;
+        double sumXY = 0;
+        double area = 0;
+        for (int i = 0; i < n; i++) {
+            if (y[i] > maxY) {
+                maxY = y[i];
+                maxIndex = i;
+                sumBeforeMax = sum;
+            }
+            sum += y[i];
+            sumXY += x[i] * y[i];
+            if (i > 0) {
+                area += 0.5 * (y[i] + y[i - 1]) * (x[i] - x[i - 1]);
+            }
+        }
+        double sumAfterMax = sum - sumBeforeMax - y[maxIndex];
+
+        // Положение и высота максимума между точками сетки
+        double peakPosition = x[maxIndex];
+        double peakHeight = maxY;
+        if (maxIndex > 0 && maxIndex < n - 1) {
+            double[] vertex = parabolicVertex(x[maxIndex - 1], y[maxIndex - 1], x[maxIndex], y[maxIndex], x[maxIndex + 1], y[maxIndex + 1]);
+            if (vertex != null) {
+                peakPosition = vertex[0];
+                peakHeight = vertex[1];
+            }
+        }
+
+        // 2. Крайние пересечения уровня 95% высоты. Благодаря интерполяции достаточно одной точки выше уровня;
+        // уровень не выше наибольшей точки, даже если вершина параболы поднялась больше чем на 5%
+        double level95 = Math.min(0.95 * peakHeight, maxY);
+        int first95 = -1;
+        int last95 = -1;
+        for (int i = 0; i < n; i++) {
+            if (y[i] >= level95) {
+                if (first95 < 0) first95 = i;
+                last95 = i;
+            }
+        }
+        double left95 = first95 > 0 ? crossing(x, y, first95 - 1, first95, level95) : x[first95];
+        double right95 = last95 < n - 1 ? crossing(x, y, last95 + 1, last95, level95) : x[last95];
+
+        // Пересечения половины высоты: между ближайшей к максимуму точкой не выше половины и ее соседом
+        int peak = maxY > 0 ? maxIndex : 0;
+        double halfMax = Math.max(peakHeight, 0) / 2;
+        double halfMaxLeft = x[0];
+        for (int i = peak; i >= 0; i--) {
+            if (y[i] <= halfMax) {
+                halfMaxLeft = i < peak ? crossing(x, y, i, i + 1, halfMax) : x[i];
+                break;
+            }
+        }
+        double halfMaxRight = x[n - 1];
+        for (int i = peak; i < n; i++) {
+            if (y[i] <= halfMax) {
+                halfMaxRight = i > peak ? crossing(x, y, i, i - 1, halfMax) : x[i];
+                break;
+            }
+        }
+
+        return new SpectrumStatistics(
+                (left95 + right95) / 2,
+                peakPosition,
+                peakHeight,
+                sumXY / sum,
+                halfMaxLeft,
+                halfMaxRight,
+                Math.abs(halfMaxRight - halfMaxLeft),
+                sumBeforeMax / sumAfterMax,
+                sum,
+                Math.abs(area));
+    }
+
+    /**
+     * Координата, в которой отрезок от точки below (не выше level) до точки above (выше level)
+     * пересекает уровень level.
+     */
+    private static double crossing(double[] x, double[] y, int below, int above, double level) {
+        double dy = y[above] - y[below];
+        if (dy <= 0) return x[below];
+        return x[below] + (level - y[below]) / dy * (x[above] - x[below]);
+    }
+
+    /**
+     * Вершина параболы через три точки: {x, y} или null, если парабола не имеет максимума
+     * между крайними точками.
+     */
+    private static double[] parabolicVertex(double x0, double y0, double x1, double y1, double x2, double y2) {
+        // Парабола y = a·u² + b·u + y1 в координатах u = x - x1
+        double u0 = x0 - x1;
+        double u2 = x2 - x1;
+        double d = u0 * u2 * (u0 - u2);
+        if (d == 0) return null;
+        double a = ((y0 - y1) * u2 - (y2 - y1) * u0) / d;
+        double b = ((y2 - y1) * u0 * u0 - (y0 - y1) * u2 * u2) / d;
+        if (!(a < 0)) return null;
+        double u = -b / (2 * a);
+        if (u < Math.min(u0, u2) || u > Math.max(u0, u2)) return null;
+        return new double[]{x1 + u, y1 - b * b / (4 * a)};
+    }
+}
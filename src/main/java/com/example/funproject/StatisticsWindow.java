@@ -1,16 +1,17 @@
 package com.example.funproject;
 
-import javafx.collections.ObservableList;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
 import javafx.scene.Scene;
 import javafx.scene.chart.LineChart;
-import javafx.scene.chart.XYChart;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.scene.control.TextArea;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.ToDoubleFunction;
 
 public class StatisticsWindow extends Stage {
 
@@ -20,209 +21,87 @@ public class StatisticsWindow extends Stage {
         infoArea.setEditable(false); // Делаем область нередактируемой
 
         // Формирование текста с теоретической информацией и результатами
-        String infoText = generateInfoText(chart);
+        Spectrum spectrum = Spectrum.fromSeries(ChartCropper.findSpectrumSeries(chart));
+        String infoText = generateInfoText(spectrum);
         infoArea.setText(infoText);
 
         // Добавление текстовой области в окно
         VBox layout = new VBox(infoArea);
         VBox.setVgrow(infoArea, Priority.ALWAYS); // Добавляем эту строку для автоматического изменения размера
 
+        // Таблица характеристик отдельных линий, если на графике отмечены пики
+        double[] peakPositions = ChartCropper.findPeakPositions(chart);
+        if (peakPositions.length > 0) {
+            TableView<SpectrumStatistics> peakTable = createPeakTable(PeakRegions.statistics(spectrum, peakPositions));
+            layout.getChildren().add(peakTable);
+            VBox.setVgrow(peakTable, Priority.ALWAYS);
+        }
+
         this.setScene(new Scene(layout));
         this.setAlwaysOnTop(true);
         this.setWidth(600);  // Устанавливаем ширину окна
-        this.setHeight(400); // Устанавливаем высоту окна
+        this.setHeight(peakPositions.length > 0 ? 650 : 400); // Устанавливаем высоту окна
+    }
+
+    /**
+     * Таблица с характеристиками каждой линии, по строке на область пика.
+     */
+    private TableView<SpectrumStatistics> createPeakTable(List<SpectrumStatistics> peaks) {
+        TableView<SpectrumStatistics> table = new TableView<>();
+        table.getColumns().add(createColumn("Положение вершины", SpectrumStatistics::peakPosition));
+        table.getColumns().add(createColumn("Энергия максимума", SpectrumStatistics::energyMax));
+        table.getColumns().add(createColumn("Высота", SpectrumStatistics::maxIntensity));
+        table.getColumns().add(createColumn("Центр тяжести", SpectrumStatistics::centerOfGravity));
+        table.getColumns().add(createColumn("Ширина", SpectrumStatistics::width));
+        table.getColumns().add(createColumn("Асимметрия", SpectrumStatistics::asymmetry));
+        table.getColumns().add(createColumn("Площадь", SpectrumStatistics::area));
+        table.getItems().setAll(peaks);
+        return table;
+    }
+
+    private TableColumn<SpectrumStatistics, Number> createColumn(String title, ToDoubleFunction<SpectrumStatistics> value) {
+        TableColumn<SpectrumStatistics, Number> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyDoubleWrapper(value.applyAsDouble(cell.getValue())));
+        return column;
     }
 
     /**
      * Генерирует текст с теоретической информацией и результатами расчетов.
      *
-     * @param chart График, из которого извлекаются данные.
+     * @param spectrum Спектр из последней серии графика.
      * @return Текст с информацией и результатами.
      */
-    private String generateInfoText(LineChart<Number, Number> chart) {
-        // Вычисление параметров
-        double energyMax = calculateEnergyMax(chart);
-        double centerOfGravity = calculateCenterOfGravity(chart);
-        double width = calculateSpectralLineWidth(chart);
-        double asymmetry = calculateAsymmetryIndex(chart);
-        double integralIntensity = calculateIntegralIntensity(chart);
+    private String generateInfoText(Spectrum spectrum) {
+        // Все параметры рассчитываются за два прохода по данным спектра
+        SpectrumStatistics statistics = SpectrumStatistics.of(spectrum);
 
         // Формирование текста
         return "**Результаты**\n\n" +
-                "Энергия максимума: " + energyMax + "\n" +
-                "Центр тяжести: " + centerOfGravity + "\n" +
-                "Ширина: " + width + "\n" +
-                "Асимметрия: " + asymmetry + "\n" +
-                "Интегральная интенсивность: " + integralIntensity + "\n\n\n\n" +
+                "Энергия максимума: " + statistics.energyMax() + "\n" +
+                "Положение вершины: " + statistics.peakPosition() + "\n" +
+                "Центр тяжести: " + statistics.centerOfGravity() + "\n" +
+                "Ширина: " + statistics.width() + "\n" +
+                "Асимметрия: " + statistics.asymmetry() + "\n" +
+                "Интегральная интенсивность: " + statistics.integralIntensity() + "\n" +
+                "Площадь: " + statistics.area() + "\n\n\n\n" +
                 "**Теоретическая информация**\n\n" +
                 "**Энергия максимума:**\n" +
                 "Определяется на середине линии, соединяющей точки спектра, расположенные на 95% высоты.\n\n" +
+                "**Положение вершины:**\n" +
+                "Вершина параболы, проведенной через наибольшую точку спектра и двух ее соседей.\n\n" +
                 "**Центр тяжести:**\n" +
                 "Отношение суммы произведений интенсивности в данной точке спектра на её энергию к числу точек спектра.\n\n" +
                 "**Ширина:**\n" +
-                "Расстояние между точками спектра, лежащими на половине высоты.\n\n" +
+                "Расстояние между точками спектра, лежащими на половине высоты.\n" +
+                "Пересечения уровней 95% и половины высоты находятся линейной интерполяцией между соседними точками.\n\n" +
                 "**Асимметрия:**\n" +
                 "Отношение сумм интенсивностей в каждой точке спектра слева и справа от максимума.\n\n" +
                 "**Интегральная интенсивность:**\n" +
-                "Сумма интенсивности в каждой точке спектра.\n";
-    }
-
-    /**
-     * Вычисляет энергию максимума спектра.
-     *
-     * @param chart График, из которого извлекаются данные.
-     * @return Энергия максимума.
-     * @throws IllegalArgumentException Если недостаточно точек для определения энергии максимума.
-     */
-    private double calculateEnergyMax(LineChart<Number, Number> chart) {
-        // Получение данных из графика
-        ObservableList<XYChart.Data<Number, Number>> data = chart.getData().get(chart.getData().size() - 1).getData();
-
-        // Поиск максимума интенсивности
-        double maxY = data.stream().mapToDouble(d -> d.getYValue().doubleValue()).max().orElseThrow(IllegalArgumentException::new);
-
-        // Поиск точек на 95% высоты
-        List<XYChart.Data<Number, Number>> points95 = data.stream()
-                .filter(d -> d.getYValue().doubleValue() >= 0.95 * maxY)
-                .collect(Collectors.toList());
-
-        // Проверка, что найдено достаточно точек
-        if (points95.size() < 2) {
-            throw new IllegalArgumentException("Недостаточно точек для определения энергии максимума");
-        }
-
-        // Получение энергий двух точек на 95% высоты
-        double energy1 = points95.get(0).getXValue().doubleValue();
-        double energy2 = points95.get(points95.size() - 1).getXValue().doubleValue();
-
-        // Расчет энергии максимума как середины между двумя точками
-        return (energy1 + energy2) / 2;
-    }
-
-    /**
-     * Вычисляет центр тяжести спектра.
-     *
-     * @param chart График, из которого извлекаются данные.
-     * @return Центр тяжести спектра.
-     */
-    private double calculateCenterOfGravity(LineChart<Number, Number> chart) {
-        double sumIntensityEnergy = 0;
-        double sumIntensity = 0;
-
-        // Получаем данные один раз для эффективности
-        List<XYChart.Data<Number, Number>> dataPoints = chart.getData().get(chart.getData().size() - 1).getData();
-
-        // Используем итератор для доступа к данным
-        for (XYChart.Data<Number, Number> data : dataPoints) {
-            double energy = data.getXValue().doubleValue();
-            double intensity = data.getYValue().doubleValue();
-            sumIntensityEnergy += intensity * energy;
-            sumIntensity += intensity;
-        }
-
-        return sumIntensityEnergy / sumIntensity;
-    }
-
-    /**
-     * Вычисляет ширину спектральной линии на половине высоты.
-     *
-     * @param chart График, из которого извлекаются данные.
-     * @return Ширина спектральной линии.
-     */
-    private double calculateSpectralLineWidth(LineChart<Number, Number> chart) {
-        // Получаем данные последней серии
-        List<XYChart.Data<Number, Number>> data = chart.getData().get(chart.getData().size() - 1).getData();
-
-        // 1. Найти максимум
-        double maxIntensity = 0;
-        int maxIndex = 0;
-        for (int i = 0; i < data.size(); i++) {
-            double intensity = data.get(i).getYValue().doubleValue();
-            if (intensity > maxIntensity) {
-                maxIntensity = intensity;
-                maxIndex = i;
-            }
-        }
-
-        // 2. Половина высоты
-        double halfMaxIntensity = maxIntensity / 2;
-
-        // 3. Найти точки пересечения
-        int leftIndex = 0;
-        int rightIndex = data.size() - 1;
-
-        // Поиск слева
-        for (int i = maxIndex; i >= 0; i--) {
-            if (data.get(i).getYValue().doubleValue() <= halfMaxIntensity) {
-                leftIndex = i;
-                break;
-            }
-        }
-
-        // Поиск справа
-        for (int i = maxIndex; i < data.size(); i++) {
-            if (data.get(i).getYValue().doubleValue() <= halfMaxIntensity) {
-                rightIndex = i;
-                break;
-            }
-        }
-
-        // 4. Вычислить расстояние
-        double leftEnergy = data.get(leftIndex).getXValue().doubleValue();
-        double rightEnergy = data.get(rightIndex).getXValue().doubleValue();
-        return Math.abs(rightEnergy - leftEnergy);
-    }
-
-    /**
-     * Вычисляет индекс асимметрии спектральной линии.
-     *
-     * @param chart График, из которого извлекаются данные.
-     * @return Индекс асимметрии.
-     */
-    private double calculateAsymmetryIndex(LineChart<Number, Number> chart) {
-        // Получить данные последней серии
-        List<XYChart.Data<Number, Number>> data = chart.getData().get(chart.getData().size() - 1).getData();
-
-        // Найти индекс максимума
-        int maxIndex = 0;
-        double maxValue = data.get(0).getYValue().doubleValue();
-        for (int i = 1; i < data.size(); i++) {
-            double value = data.get(i).getYValue().doubleValue();
-            if (value > maxValue) {
-                maxValue = value;
-                maxIndex = i;
-            }
-        }
-
-        // Суммировать интенсивности слева и справа от максимума
-        double sumLeft = 0;
-        double sumRight = 0;
-        for (int i = 0; i < data.size(); i++) {
-            if (i < maxIndex) {
-                sumLeft += data.get(i).getYValue().doubleValue();
-            } else if (i > maxIndex) {
-                sumRight += data.get(i).getYValue().doubleValue();
-            }
-        }
-
-        // Вычислить индекс ассиметрии
-        return sumLeft / sumRight;
-    }
-
-    /**
-     * Вычисляет интегральную интенсивность спектра.
-     *
-     * @param chart График, из которого извлекаются данные.
-     * @return Интегральная интенсивность.
-     */
-    private double calculateIntegralIntensity(LineChart<Number, Number> chart) {
-        double integralIntensity = 0;
-        int lastChartSeries = chart.getData().size() - 1;
-        List<XYChart.Data<Number, Number>> dataPoints = chart.getData().get(lastChartSeries).getData();
-        for (XYChart.Data<Number, Number> data : dataPoints) {
-            double intensity = data.getYValue().doubleValue();
-            integralIntensity += intensity;
-        }
-        return integralIntensity;
+                "Сумма интенсивности в каждой точке спектра.\n\n" +
+                "**Площадь:**\n" +
+                "Площадь под спектром, рассчитанная методом трапеций.\n\n" +
+                "**Характеристики линий:**\n" +
+                "Если на графике отмечены пики, спектр делится на области по минимумам между соседними пиками, " +
+                "и для каждой области рассчитываются те же характеристики.\n";
     }
 }
@@ -9,7 +9,6 @@ import javafx.scene.chart.XYChart;
 import javafx.scene.control.*;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.BorderPane;
-import javafx.scene.layout.TilePane;
 import javafx.scene.layout.VBox;
 
 import java.util.HashMap;
@@ -26,9 +25,9 @@ public class TabManager {
     private TabPane chartTabPane;
     protected Map<Tab, TabPane> innerTableAndChartTabPanes = new HashMap<>();
     private TableView<SpectralDataTable.SpectralData> spectralDataTableView;
-    private Button addChartButton, normalizeButton, interpolateButton, backgroundButton, smoothButton, correctionButton, statisticsButton, seriesManagementButton;
+    private Button addChartButton, normalizeButton, interpolateButton, backgroundButton, smoothButton, correctionButton, statisticsButton, peakFitButton, seriesManagementButton;
     protected ImageView mainImageView;
-    protected TilePane thumbnailsTilePane;
+    protected ListView<GrayFrame> thumbnailsListView;
     private Tab newTab;
     private boolean isCroppingMode = false;
     private ChartCropper currentCropper;
@@ -83,12 +82,11 @@ public class TabManager {
         mainImageView = new ImageView();
         mainImageView.setPreserveRatio(true);
         ScrollPane mainImageScrollPane = createScrollPane(mainImageView, true, true);
-        thumbnailsTilePane = createThumbnailsTilePane();
-        ScrollPane thumbnailsScrollPane = createScrollPane(thumbnailsTilePane, true, false);
-        SplitPane imageAndThumbnailsSplitPane = createSplitPane(mainImageScrollPane, thumbnailsScrollPane, 0.8);
+        thumbnailsListView = createThumbnailsListView();
+        SplitPane imageAndThumbnailsSplitPane = createSplitPane(mainImageScrollPane, thumbnailsListView, 0.8);
 
         // Создание панели управления изображением
-        imageProcessor = new ImageProcessor(controller, mainImageView, thumbnailsTilePane);
+        imageProcessor = new ImageProcessor(controller, mainImageView, thumbnailsListView);
         ImageControlPanel imageControlPanel = new ImageControlPanel(controller, imageProcessor, mainImageView, chartTabPane);
 
         // Размещение элементов в BorderPane
@@ -117,6 +115,7 @@ public class TabManager {
                 backgroundButton,
                 smoothButton,
                 statisticsButton,
+                peakFitButton,
                 correctionButton,
                 seriesManagementButton);
 
@@ -158,16 +157,16 @@ public class TabManager {
     }
 
     /**
-     * Создает TilePane для миниатюр изображений.
+     * Создает список миниатюр изображений. Высота ячейки фиксирована, чтобы список
+     * не измерял каждую миниатюру при прокрутке.
      *
-     * @return Созданный TilePane
+     * @return Созданный ListView
      */
-    private TilePane createThumbnailsTilePane() {
-        TilePane tilePane = new TilePane();
-        tilePane.setPrefColumns(1);
-        tilePane.setPadding(new Insets(5));
-        tilePane.setVgap(5);
-        return tilePane;
+    private ListView<GrayFrame> createThumbnailsListView() {
+        ListView<GrayFrame> listView = new ListView<>();
+        listView.setPadding(new Insets(5));
+        listView.setFixedCellSize(ThumbnailCache.THUMBNAIL_SIZE + 10);
+        return listView;
     }
 
     /**
@@ -183,6 +182,7 @@ public class TabManager {
         smoothButton = createButton("Сглаживание", event -> handleSmoothButtonClick(controller));
         correctionButton = createButton("Обрезать график", event -> handleCorrectionButtonClick(controller));
         statisticsButton = createButton("Статистика", event -> handleStatisticsButtonClick(controller));
+        peakFitButton = createButton("Аппроксимация пиков", event -> handlePeakFitButtonClick(controller));
         seriesManagementButton = createButton("Управление сериями", event -> handleSeriesManagementButtonClick(controller));
     }
 
@@ -347,10 +347,31 @@ public class TabManager {
      */
     private void handleStatisticsButtonClick(HelloController controller) {
         LineChart<Number, Number> currentChart = getCurrentChart(controller);
+        XYChart.Series<Number, Number> series = ChartCropper.findSpectrumSeries(currentChart);
+        if (series == null || series.getData().isEmpty()) {
+            // Вывод сообщения об ошибке
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Ошибка");
+            alert.setHeaderText("На графике нет спектра");
+            alert.setContentText("Для расчета характеристик постройте спектр.");
+            alert.showAndWait();
+            return;
+        }
         StatisticsWindow statisticsWindow = new StatisticsWindow(controller, currentChart);
         statisticsWindow.show();
     }
 
+    /**
+     * Обработчик нажатия кнопки "Аппроксимация пиков".
+     *
+     * @param controller Контроллер приложения
+     */
+    private void handlePeakFitButtonClick(HelloController controller) {
+        LineChart<Number, Number> currentChart = getCurrentChart(controller);
+        PeakFitWindow peakFitWindow = new PeakFitWindow(controller, currentChart);
+        peakFitWindow.show();
+    }
+
     /**
      * Обработчик нажатия кнопки "Управление сериями".
      *
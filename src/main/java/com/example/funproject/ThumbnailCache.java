@@ -0,0 +1,46 @@
+package com.example.funproject;
+
+import javafx.scene.image.Image;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ограниченный кэш уменьшенных изображений кадров, ключ - кадр (сравнение по ссылке).
+ * При переполнении вытесняется миниатюра, к которой дольше всего не обращались.
+ */
+class ThumbnailCache {
+
+    /**
+     * Сторона квадрата, в который вписывается миниатюра.
+     */
+    static final int THUMBNAIL_SIZE = 150;
+
+    private final Map<GrayFrame, Image> images;
+
+    /**
+     * @param capacity Наибольшее число хранимых миниатюр.
+     */
+    ThumbnailCache(int capacity) {
+        this.images = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<GrayFrame, Image> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Возвращает миниатюру кадра, строя ее при первом обращении.
+     */
+    Image get(GrayFrame frame) {
+        return images.computeIfAbsent(frame, f -> f.toImage(THUMBNAIL_SIZE));
+    }
+
+    /**
+     * Убирает миниатюру удаленного или замененного кадра.
+     */
+    void remove(GrayFrame frame) {
+        images.remove(frame);
+    }
+}
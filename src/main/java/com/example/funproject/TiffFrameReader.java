@@ -0,0 +1,197 @@
+package com.example.funproject;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Чтение полутоновых TIFF без сжатия (8 и 16 бит, полосами) прямо в 16-битный кадр.
+ * Файл читается полоса за полосой в один переиспользуемый буфер не больше 1 МБ,
+ * поэтому целиком в памяти находится только сам кадр. Читается первое изображение файла.
+ */
+class TiffFrameReader {
+
+    private static final int TAG_IMAGE_WIDTH = 256;
+    private static final int TAG_IMAGE_LENGTH = 257;
+    private static final int TAG_BITS_PER_SAMPLE = 258;
+    private static final int TAG_COMPRESSION = 259;
+    private static final int TAG_PHOTOMETRIC = 262;
+    private static final int TAG_STRIP_OFFSETS = 273;
+    private static final int TAG_SAMPLES_PER_PIXEL = 277;
+    private static final int TAG_ROWS_PER_STRIP = 278;
+    private static final int TAG_STRIP_BYTE_COUNTS = 279;
+    private static final int TAG_SAMPLE_FORMAT = 339;
+
+    private static final int TYPE_SHORT = 3;
+    private static final int TYPE_LONG = 4;
+
+    private static final int PHOTOMETRIC_WHITE_IS_ZERO = 0;
+    private static final int PHOTOMETRIC_BLACK_IS_ZERO = 1;
+
+    private static final int READ_BUFFER_BYTES = 1 << 20;
+
+    private TiffFrameReader() {
+    }
+
+    /**
+     * Проверяет по имени, что файл следует читать этим классом.
+     */
+    static boolean isTiff(Path path) {
+        String name = path.getFileName().toString().toLowerCase();
+        return name.endsWith(".tif") || name.endsWith(".tiff");
+    }
+
+    /**
+     * Читает первое изображение TIFF в кадр. 8-битные значения переводятся в диапазон 0..65535.
+     *
+     * @throws IOException Если файл поврежден или формат не поддерживается.
+     */
+    static GrayFrame read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, 8, ByteOrder.LITTLE_ENDIAN);
+            ByteOrder order = switch (header.getShort(0)) {
+                case 0x4949 -> ByteOrder.LITTLE_ENDIAN;
+                case 0x4D4D -> ByteOrder.BIG_ENDIAN;
+                default -> throw new IOException("Файл не является TIFF: " + path);
+            };
+            header.order(order);
+            if (header.getShort(2) != 42) {
+                throw new IOException("Неподдерживаемая версия TIFF: " + path);
+            }
+
+            Map<Integer, long[]> tags = readDirectory(channel, Integer.toUnsignedLong(header.getInt(4)), order);
+            int width = (int) requiredTag(tags, TAG_IMAGE_WIDTH, path);
+            int height = (int) requiredTag(tags, TAG_IMAGE_LENGTH, path);
+            int bits = (int) tag(tags, TAG_BITS_PER_SAMPLE, 1);
+            int photometric = (int) tag(tags, TAG_PHOTOMETRIC, PHOTOMETRIC_BLACK_IS_ZERO);
+            int rowsPerStrip = (int) Math.min(tag(tags, TAG_ROWS_PER_STRIP, height), height);
+
+            if (tag(tags, TAG_COMPRESSION, 1) != 1) {
+                throw new IOException("Сжатые TIFF не поддерживаются: " + path);
+            }
+            if (tag(tags, TAG_SAMPLES_PER_PIXEL, 1) != 1 || tag(tags, TAG_SAMPLE_FORMAT, 1) != 1) {
+                throw new IOException("Поддерживаются только полутоновые TIFF с беззнаковыми значениями: " + path);
+            }
+            if (bits != 8 && bits != 16) {
+                throw new IOException("Неподдерживаемая разрядность TIFF (" + bits + " бит): " + path);
+            }
+            if (photometric != PHOTOMETRIC_WHITE_IS_ZERO && photometric != PHOTOMETRIC_BLACK_IS_ZERO) {
+                throw new IOException("TIFF не является полутоновым: " + path);
+            }
+
+            long[] stripOffsets = tags.get(TAG_STRIP_OFFSETS);
+            long[] stripByteCounts = tags.get(TAG_STRIP_BYTE_COUNTS);
+            int strips = (height + rowsPerStrip - 1) / rowsPerStrip;
+            if (stripOffsets == null || stripOffsets.length < strips) {
+                throw new IOException("В TIFF нет смещений полос: " + path);
+            }
+
+            int bytesPerSample = bits / 8;
+            int rowBytes = width * bytesPerSample;
+            // Полоса читается порциями строк, чтобы буфер чтения не превышал READ_BUFFER_BYTES
+            int chunkRows = Math.max(1, Math.min(rowsPerStrip, READ_BUFFER_BYTES / Math.max(1, rowBytes)));
+            ByteBuffer chunk = ByteBuffer.allocate(chunkRows * rowBytes).order(order);
+            short[] samples = new short[width * height];
+            int invert = photometric == PHOTOMETRIC_WHITE_IS_ZERO ? GrayFrame.MAX_VALUE : 0;
+
+            for (int s = 0; s < strips; s++) {
+                int stripRows = Math.min(rowsPerStrip, height - s * rowsPerStrip);
+                if (stripByteCounts != null && s < stripByteCounts.length && stripByteCounts[s] < (long) stripRows * rowBytes) {
+                    throw new IOException("Полоса " + s + " TIFF короче ожидаемого: " + path);
+                }
+
+                for (int row = 0; row < stripRows; row += chunkRows) {
+                    int rows = Math.min(chunkRows, stripRows - row);
+                    int count = rows * width;
+                    chunk.clear().limit(rows * rowBytes);
+                    readFully(channel, stripOffsets[s] + (long) row * rowBytes, chunk);
+
+                    int base = (s * rowsPerStrip + row) * width;
+                    if (bytesPerSample == 2) {
+                        for (int i = 0; i < count; i++) {
+                            samples[base + i] = (short) ((chunk.getShort(2 * i) & 0xFFFF) ^ invert);
+                        }
+                    } else {
+                        for (int i = 0; i < count; i++) {
+                            samples[base + i] = (short) (((chunk.get(i) & 0xFF) * 257) ^ invert);
+                        }
+                    }
+                }
+            }
+            // Окно 16-битного кадра вычисляется по его диапазону, 8-битный показывается как есть
+            return new GrayFrame(width, height, ShortBuffer.wrap(samples), bytesPerSample == 2 ? null : GrayFrame.DisplayWindow.FULL);
+        }
+    }
+
+    /**
+     * Читает каталог изображения. Значения тегов типов SHORT и LONG возвращаются массивами;
+     * остальные теги для чтения кадра не нужны и пропускаются.
+     */
+    private static Map<Integer, long[]> readDirectory(FileChannel channel, long offset, ByteOrder order) throws IOException {
+        int entries = readFully(channel, offset, 2, order).getShort(0) & 0xFFFF;
+        ByteBuffer directory = readFully(channel, offset + 2, 12 * entries, order);
+        Map<Integer, long[]> tags = new HashMap<>();
+
+        for (int e = 0; e < entries; e++) {
+            int entry = 12 * e;
+            int tag = directory.getShort(entry) & 0xFFFF;
+            int type = directory.getShort(entry + 2) & 0xFFFF;
+            int count = directory.getInt(entry + 4);
+            if ((type != TYPE_SHORT && type != TYPE_LONG) || count <= 0) continue;
+
+            int size = type == TYPE_SHORT ? 2 : 4;
+            ByteBuffer values;
+            int position;
+            if ((long) size * count <= 4) {
+                values = directory;
+                position = entry + 8;
+            } else {
+                values = readFully(channel, Integer.toUnsignedLong(directory.getInt(entry + 8)), size * count, order);
+                position = 0;
+            }
+
+            long[] result = new long[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = type == TYPE_SHORT
+                        ? values.getShort(position + 2 * i) & 0xFFFF
+                        : Integer.toUnsignedLong(values.getInt(position + 4 * i));
+            }
+            tags.put(tag, result);
+        }
+        return tags;
+    }
+
+    private static long tag(Map<Integer, long[]> tags, int tag, long defaultValue) {
+        long[] values = tags.get(tag);
+        return values != null ? values[0] : defaultValue;
+    }
+
+    private static long requiredTag(Map<Integer, long[]> tags, int tag, Path path) throws IOException {
+        long[] values = tags.get(tag);
+        if (values == null) {
+            throw new IOException("В TIFF нет обязательного тега " + tag + ": " + path);
+        }
+        return values[0];
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length, ByteOrder order) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(order);
+        readFully(channel, position, buffer);
+        return buffer;
+    }
+
+    private static void readFully(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position() - start) < 0) {
+                throw new IOException("Неожиданный конец файла TIFF");
+            }
+        }
+    }
+}
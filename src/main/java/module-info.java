@@ -2,6 +2,7 @@ module com.example.funproject {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.xml;
+    requires commons.math3;
 
 
     opens com.example.funproject to javafx.fxml;